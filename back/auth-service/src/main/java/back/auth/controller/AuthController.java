@@ -5,6 +5,7 @@ import back.auth.model.SigninRequest;
 import back.auth.model.UserSignupRequest;
 import back.auth.service.UserServiceClient;
 import back.auth.util.JwtTokenUtil;
+import back.auth.util.TokenClaims;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
@@ -65,10 +66,8 @@ public class AuthController {
             return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
         }
         String tokenWithoutPrefix = token.substring(7);
-        if (!jwtTokenUtil.validateJwtToken(tokenWithoutPrefix)) {
-            return ResponseEntity.status(401).body("{\"error\":\"Invalid or expired token\"}");
-        }
-        String email = jwtTokenUtil.getEmailFromJwtToken(tokenWithoutPrefix);
+        TokenClaims claims = jwtTokenUtil.verify(tokenWithoutPrefix);
+        String email = claims != null ? claims.getSubject() : null;
         if (email == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Invalid or expired token\"}");
         }
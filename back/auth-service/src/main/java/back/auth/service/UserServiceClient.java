@@ -4,16 +4,28 @@ import back.auth.model.InternalUserDTO;
 import back.auth.model.UserSignupRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+
 @Service
 public class UserServiceClient {
     private final RestClient restClient;
 
-    public UserServiceClient(@Value("${services.user.base-url}") String userServiceBaseUrl) {
-        this.restClient = RestClient.builder().baseUrl(userServiceBaseUrl).build();
+    public UserServiceClient(@Value("${services.user.base-url}") String userServiceBaseUrl,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HttpClient.Builder httpClient = HttpClient.newBuilder();
+        if (virtualThreads) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        this.restClient = RestClient.builder()
+                .baseUrl(userServiceBaseUrl)
+                .requestFactory(new JdkClientHttpRequestFactory(httpClient.build()))
+                .build();
     }
 
     public InternalUserDTO getByEmail(String email) {
@@ -10,7 +10,7 @@ class JwtTokenUtilUnitTest {
     @Test
     void shouldGenerateValidateAndParseToken() {
         JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
-        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", "test-secret");
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", "test-secret-with-at-least-256-bits");
         ReflectionTestUtils.setField(jwtTokenUtil, "jwtExpiration", 60_000L);
 
         String token = jwtTokenUtil.generateJwtToken("user@example.com");
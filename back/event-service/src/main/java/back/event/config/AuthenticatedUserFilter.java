@@ -0,0 +1,57 @@
+package back.event.config;
+
+import back.event.model.AuthenticatedUser;
+import back.event.service.UserService;
+import back.event.util.InternalPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Определяет пользователя запроса ровно один раз и кладёт
+ * {@link AuthenticatedUser} в {@code SecurityContext}.
+ *
+ * <p>
+ * Если gateway передал {@link InternalPrincipal}, ни JWT, ни БД не
+ * трогаются. Иначе токен проверяется один раз, а id и роль берутся из
+ * кэша {@link UserService#authenticate(String)}. Запрос без пользователя
+ * пропускается дальше анонимным: какие эндпоинты требуют входа, решают
+ * контроллеры.
+ */
+public class AuthenticatedUserFilter extends OncePerRequestFilter {
+    private final UserService userService;
+
+    public AuthenticatedUserFilter(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AuthenticatedUser user = resolve(request);
+        if (user != null) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, null,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + String.valueOf(user.getRole()).toUpperCase())));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private AuthenticatedUser resolve(HttpServletRequest request) {
+        if (request.getAttribute(InternalPrincipal.ATTRIBUTE) instanceof InternalPrincipal principal) {
+            return new AuthenticatedUser(principal.getId(), principal.getEmail(), principal.getRole());
+        }
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        return userService.authenticate(authorization.substring(7));
+    }
+}
@@ -1,31 +1,66 @@
 package back.event.controller;
 
 import back.event.dto.EventDTO;
+import back.event.dto.EventPage;
+import back.event.dto.EventQuery;
+import back.event.dto.FeedbackDTO;
+import back.event.dto.FeedbackPage;
 import back.event.dto.FeedbackRequest;
+import back.event.dto.NewsletterProgressDTO;
+import back.event.dto.RegistrationImportReport;
 import back.event.dto.UserDTO;
+import back.event.model.AuthenticatedUser;
+import back.event.model.enums.RegistrationOutcome;
 import back.event.service.EventService;
+import back.event.service.FlashSaleService;
+import back.event.service.NewsletterService;
+import back.event.service.ParticipantExportService;
+import back.event.service.RegistrationImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/events")
 public class EventController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String XLSX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     private final EventService eventService;
+    private final FlashSaleService flashSaleService;
+    private final NewsletterService newsletterService;
+    private final ParticipantExportService participantExportService;
+    private final RegistrationImportService registrationImportService;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, FlashSaleService flashSaleService,
+            NewsletterService newsletterService, ParticipantExportService participantExportService,
+            RegistrationImportService registrationImportService) {
         this.eventService = eventService;
+        this.flashSaleService = flashSaleService;
+        this.newsletterService = newsletterService;
+        this.participantExportService = participantExportService;
+        this.registrationImportService = registrationImportService;
     }
 
     @PostMapping
-    public ResponseEntity<?> createEvent(@RequestHeader("Authorization") String token, @RequestBody EventDTO dto) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> createEvent(@AuthenticationPrincipal AuthenticatedUser user, @RequestBody EventDTO dto) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        String result = eventService.addEvent(tokenWithoutPrefix, dto);
+        String result = eventService.addEvent(user.getId(), user.getRole(), dto);
         if (result.startsWith("Event")) {
             return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
         }
@@ -33,14 +68,13 @@ public class EventController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateEvent(@RequestHeader("Authorization") String token,
+    public ResponseEntity<?> updateEvent(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable int id,
             @RequestBody EventDTO dto) {
-        if (token == null || !token.startsWith("Bearer ")) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        String result = eventService.updateEvent(tokenWithoutPrefix, id, dto);
+        String result = eventService.updateEvent(user.getId(), user.getRole(), id, dto);
         if (result.startsWith("Event")) {
             return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
         }
@@ -48,99 +82,257 @@ public class EventController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteEvent(@RequestHeader("Authorization") String token, @PathVariable int id) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> deleteEvent(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        String result = eventService.deleteEvent(tokenWithoutPrefix, id);
+        String result = eventService.deleteEvent(user.getId(), user.getRole(), id);
         if (result.equals("Event deleted.")) {
             return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
         }
         return ResponseEntity.status(403).body("{\"error\":\"" + result + "\"}");
     }
 
+    /**
+     * Каталог событий: {@code category, status, from, to, minPrice, maxPrice,
+     * tags, tagMatch (all|any), organizerId, q, sort (startDate|-startDate|price|-price|newest),
+     * limit, cursor}. Тело — массив событий, курсор следующей страницы — в
+     * заголовке {@value #NEXT_CURSOR_HEADER}.
+     */
     @GetMapping
-    public ResponseEntity<?> listEvents(@RequestParam(value = "category", required = false) String category) {
-        List<EventDTO> events = eventService.getAllEvents();
-        if (category == null || category.isBlank()) {
-            return ResponseEntity.ok(events);
+    public ResponseEntity<?> listEvents(EventQuery query) {
+        EventPage page;
+        try {
+            page = eventService.findEvents(query);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+        if (page.getNextCursor() == null) {
+            return ResponseEntity.ok(page.getEvents());
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, page.getNextCursor()).body(page.getEvents());
+    }
+
+    /**
+     * События рядом с точкой, ближайшие первыми; продолжение — как в
+     * {@link #listEvents(EventQuery)}, через {@value #NEXT_CURSOR_HEADER}.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> nearbyEvents(@RequestParam double lat, @RequestParam double lng,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        EventPage page;
+        try {
+            page = eventService.findNearby(lat, lng, radiusKm, limit, cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+        if (page.getNextCursor() == null) {
+            return ResponseEntity.ok(page.getEvents());
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, page.getNextCursor()).body(page.getEvents());
+    }
+
+    /**
+     * Полнотекстовый поиск с префиксами слов (подсказки при вводе),
+     * ранжированием и подсветкой; продолжение — через {@value #NEXT_CURSOR_HEADER}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchEvents(@RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        EventPage page;
+        try {
+            page = eventService.search(q, limit, cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\":\"" + e.getMessage() + "\"}");
         }
-        List<EventDTO> filtered = events.stream()
-                .filter(event -> category.equalsIgnoreCase(event.getEventCategory()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(filtered);
+        if (page.getNextCursor() == null) {
+            return ResponseEntity.ok(page.getEvents());
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, page.getNextCursor()).body(page.getEvents());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getEventById(@PathVariable int id) {
-        EventDTO event = eventService.getEventById(id);
+        byte[] event = eventService.getEventJson(id);
         if (event != null) {
-            return ResponseEntity.ok(event);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(event);
         }
         return ResponseEntity.status(404).body("{\"error\":\"Event not found.\"}");
     }
 
     @PostMapping("/{id}/registrations")
-    public ResponseEntity<?> registerForEvent(@RequestHeader("Authorization") String token,
+    public ResponseEntity<?> registerForEvent(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable int id) {
-        if (token == null || !token.startsWith("Bearer ")) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
+        }
+        RegistrationOutcome result = eventService.registerForEvent(user.getId(), id);
+        return switch (result) {
+            case REGISTERED -> ResponseEntity.ok("{\"message\":\"" + result.getMessage() + "\"}");
+            case WAITLISTED -> ResponseEntity.status(202).body("{\"message\":\"" + result.getMessage()
+                    + "\",\"position\":" + eventService.getWaitlistPosition(user.getId(), id) + "}");
+            case EVENT_NOT_FOUND -> ResponseEntity.status(404).body("{\"error\":\"" + result.getMessage() + "\"}");
+            case ALREADY_REGISTERED ->
+                ResponseEntity.status(409).body("{\"error\":\"" + result.getMessage() + "\"}");
+        };
+    }
+
+    @PostMapping("/{id}/flash-sale")
+    public ResponseEntity<?> enableFlashSale(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id,
+            @RequestParam(required = false) Integer shards) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
+        }
+        String result = flashSaleService.enable(user.getId(), user.getRole(), id, shards);
+        if (result.equals("Flash sale enabled.")) {
+            return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
+        }
+        return ResponseEntity.status(403).body("{\"error\":\"" + result + "\"}");
+    }
+
+    @DeleteMapping("/{id}/flash-sale")
+    public ResponseEntity<?> disableFlashSale(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        String result = eventService.registerForEvent(tokenWithoutPrefix, id);
-        if (result.equals("Registration successful.")) {
+        String result = flashSaleService.disable(user.getId(), user.getRole(), id);
+        if (result.equals("Flash sale disabled.")) {
             return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
         }
         return ResponseEntity.status(403).body("{\"error\":\"" + result + "\"}");
     }
 
     @GetMapping("/{id}/registrations/me")
-    public ResponseEntity<?> checkRegistration(@RequestHeader("Authorization") String token, @PathVariable int id) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> checkRegistration(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        boolean registered = eventService.checkRegistration(tokenWithoutPrefix, id);
+        boolean registered = eventService.checkRegistration(user.getId(), id);
         return ResponseEntity.ok("{\"registered\":" + registered + "}");
     }
 
+    @GetMapping("/{id}/waitlist/me")
+    public ResponseEntity<?> waitlistPosition(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
+        }
+        int position = eventService.getWaitlistPosition(user.getId(), id);
+        return ResponseEntity.ok("{\"position\":" + position + "}");
+    }
+
     @GetMapping("/{id}/participants")
-    public ResponseEntity<?> getEventParticipants(@RequestHeader("Authorization") String token, @PathVariable int id) {
-        String tokenWithoutPrefix = token.substring(7);
-        List<UserDTO> participants = eventService.getRegisteredUsers(tokenWithoutPrefix, id);
+    public ResponseEntity<?> getEventParticipants(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id,
+            @RequestParam(defaultValue = "false") boolean stream, HttpServletResponse response) throws IOException {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
+        }
+        if (stream) {
+            eventService.streamRegisteredUsers(id, jsonStream(response));
+            return null;
+        }
+        List<UserDTO> participants = eventService.getRegisteredUsers(id);
         return ResponseEntity.ok(participants);
     }
 
     @DeleteMapping("/{id}/registrations/me")
-    public ResponseEntity<?> cancelRegistration(@RequestHeader("Authorization") String token, @PathVariable int id) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> cancelRegistration(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        boolean canceled = eventService.cancelRegistration(tokenWithoutPrefix, id);
+        boolean canceled = eventService.cancelRegistration(user.getId(), id);
         return ResponseEntity.ok("{\"canceled\":" + canceled + "}");
     }
 
     @GetMapping("/{id}/registrations")
-    public ResponseEntity<?> getRegistrations(@RequestHeader("Authorization") String token, @PathVariable int id) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> getRegistrations(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id,
+            @RequestParam(defaultValue = "false") boolean stream, HttpServletResponse response) throws IOException {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        List<UserDTO> users = eventService.getRegisteredUsers(tokenWithoutPrefix, id);
+        if (stream) {
+            eventService.streamRegisteredUsers(id, jsonStream(response));
+            return null;
+        }
+        List<UserDTO> users = eventService.getRegisteredUsers(id);
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Выгрузка участников файлом: {@code format=csv} (по умолчанию, {@code gzip=true}
+     * сжимает ответ) или {@code format=xlsx}. Доступна организатору события и admin.
+     */
+    @GetMapping("/{id}/registrations/export")
+    public ResponseEntity<?> exportRegistrations(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
+        }
+        if (!"csv".equals(format) && !"xlsx".equals(format)) {
+            return ResponseEntity.badRequest().body("{\"error\":\"Unknown export format.\"}");
+        }
+        if (!participantExportService.canExport(user.getId(), user.getRole(), id)) {
+            return ResponseEntity.status(403).body("{\"error\":\"Only the organizer can export participants.\"}");
+        }
+        response.setStatus(200);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"event-" + id + "-participants." + format + "\"");
+        if ("xlsx".equals(format)) {
+            response.setContentType(XLSX_CONTENT_TYPE);
+            participantExportService.exportXlsx(id, response.getOutputStream());
+            return null;
+        }
+        response.setContentType("text/csv;charset=UTF-8");
+        if (!gzip) {
+            participantExportService.exportCsv(id, response.getOutputStream());
+            return null;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024)) {
+            participantExportService.exportCsv(id, out);
+        }
+        return null;
+    }
+
+    /**
+     * Массовая регистрация из CSV с колонкой {@code email} (тело запроса,
+     * UTF-8); в ответе — итог по каждой строке. Доступна организатору события и admin.
+     */
+    @PostMapping("/{id}/registrations/import")
+    public ResponseEntity<?> importRegistrations(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id,
+            HttpServletRequest request) throws IOException {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
+        }
+        if (!registrationImportService.canImport(user.getId(), user.getRole(), id)) {
+            return ResponseEntity.status(403).body("{\"error\":\"Only the organizer can import participants.\"}");
+        }
+        RegistrationImportReport report;
+        try (Reader csv = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            report = registrationImportService.importCsv(id, csv);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+        if (report == null) {
+            return ResponseEntity.status(404).body("{\"error\":\"Event not found.\"}");
+        }
+        return ResponseEntity.ok(report);
+    }
+
     @PostMapping("/{id}/feedback")
-    public ResponseEntity<?> leaveFeedback(@RequestHeader("Authorization") String token,
+    public ResponseEntity<?> leaveFeedback(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable int id,
             @RequestBody FeedbackRequest request) {
-        if (token == null || !token.startsWith("Bearer ")) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        String result = eventService.leaveFeedback(tokenWithoutPrefix, id, request.getRating(), request.getComment());
+        String result = eventService.leaveFeedback(user.getId(), id, request.getRating(), request.getComment());
         if (result.equals("Feedback submitted successfully.")) {
             return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
         }
@@ -148,55 +340,118 @@ public class EventController {
     }
 
     @DeleteMapping("/{eventId}/feedback/{feedbackId}")
-    public ResponseEntity<?> deleteFeedback(@RequestHeader("Authorization") String token,
+    public ResponseEntity<?> deleteFeedback(@AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable int eventId,
             @PathVariable int feedbackId) {
-        if (token == null || !token.startsWith("Bearer ")) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Неверный или просроченный токен\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        String result = eventService.deleteFeedback(tokenWithoutPrefix, feedbackId);
+        String result = eventService.deleteFeedback(feedbackId);
         if (result.equals("Feedback deleted.")) {
             return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
         }
         return ResponseEntity.status(403).body("{\"error\":\"" + result + "\"}");
     }
 
+    /**
+     * Отзывы события от новых к старым: {@code rating} (1–5), {@code limit},
+     * {@code cursor}; продолжение — через {@value #NEXT_CURSOR_HEADER}.
+     */
     @GetMapping("/{id}/feedback")
-    public ResponseEntity<?> getFeedbacks(@RequestHeader("Authorization") String token, @PathVariable int id) {
+    public ResponseEntity<?> getFeedbacks(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id,
+            @RequestParam(required = false) Integer rating,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
+        }
+        FeedbackPage page;
         try {
-            if (token == null || !token.startsWith("Bearer ")) {
-                return ResponseEntity.status(401).body(List.of("Null token"));
-            }
-            String tokenWithoutPrefix = token.substring(7);
-            List<String> feedbacks = eventService.getFeedbacks(tokenWithoutPrefix, id);
-            return ResponseEntity.ok(feedbacks);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(List.of("Ошибка при получении отзывов: " + e.getMessage()));
+            page = eventService.getFeedbacks(id, rating, limit, cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\":\"" + e.getMessage() + "\"}");
         }
+        if (page.getNextCursor() == null) {
+            return ResponseEntity.ok(page.getFeedbacks());
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, page.getNextCursor()).body(page.getFeedbacks());
+    }
+
+    @GetMapping("/{id}/feedback/me")
+    public ResponseEntity<?> getMyFeedback(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
+        }
+        FeedbackDTO feedback = eventService.getUserFeedback(user.getId(), id);
+        if (feedback == null) {
+            return ResponseEntity.status(404).body("{\"error\":\"Feedback not found.\"}");
+        }
+        return ResponseEntity.ok(feedback);
     }
 
     @GetMapping("/{id}/feedback/middle-score")
-    public ResponseEntity<?> getMiddleScore(@RequestHeader("Authorization") String token, @PathVariable int id) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> getMiddleScore(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        double score = eventService.getMiddleScore(tokenWithoutPrefix, id);
+        double score = eventService.getMiddleScore(id);
         return ResponseEntity.ok("{\"score\":" + score + "}");
     }
 
+    @GetMapping("/{id}/feedback/summary")
+    public ResponseEntity<?> getRatingSummary(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
+        }
+        return ResponseEntity.ok(eventService.getRatingSummary(id));
+    }
+
+    /**
+     * Ставит рассылку в очередь и сразу отвечает 202; письма отправляет
+     * {@link back.event.service.NewsletterWorker}, прогресс — {@code GET /{id}/newsletters/{jobId}}.
+     */
     @PostMapping("/{id}/newsletter")
-    public ResponseEntity<?> sendNewsletter(@RequestHeader("Authorization") String token, @PathVariable int id,
+    public ResponseEntity<?> sendNewsletter(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable int id,
             @RequestBody String message) {
-        if (token == null || !token.startsWith("Bearer ")) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        String result = eventService.sendNewsletter(tokenWithoutPrefix, id, message);
-        if (result.startsWith("Newsletter sent")) {
-            return ResponseEntity.ok("{\"message\":\"" + result + "\"}");
+        if (!newsletterService.canSend(user.getId(), user.getRole(), id)) {
+            return ResponseEntity.status(403)
+                    .body("{\"error\":\"Only the event organizer or admins can send newsletters.\"}");
         }
-        return ResponseEntity.status(403).body("{\"error\":\"" + result + "\"}");
+        Long jobId = newsletterService.enqueue(user.getId(), id, message);
+        if (jobId == null) {
+            return ResponseEntity.status(404).body("{\"error\":\"No registered users for this event.\"}");
+        }
+        return ResponseEntity.accepted().body("{\"message\":\"Newsletter queued.\",\"jobId\":" + jobId + "}");
+    }
+
+    @GetMapping("/{id}/newsletters/{jobId}")
+    public ResponseEntity<?> getNewsletterProgress(@AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable int id, @PathVariable long jobId) {
+        if (user == null) {
+            return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
+        }
+        if (!newsletterService.canSend(user.getId(), user.getRole(), id)) {
+            return ResponseEntity.status(403)
+                    .body("{\"error\":\"Only the event organizer or admins can send newsletters.\"}");
+        }
+        NewsletterProgressDTO progress = newsletterService.getProgress(id, jobId);
+        if (progress == null) {
+            return ResponseEntity.status(404).body("{\"error\":\"Newsletter not found.\"}");
+        }
+        return ResponseEntity.ok(progress);
+    }
+
+    /**
+     * Поток ответа для {@code ?stream=true}: тот же JSON-массив, но элементы
+     * пишутся прямо в ответ по мере чтения из БД, без списка в памяти. Как и
+     * выгрузка, обработчик пишет сам и возвращает {@code null}.
+     */
+    static OutputStream jsonStream(HttpServletResponse response) throws IOException {
+        response.setStatus(200);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        return response.getOutputStream();
     }
 }
@@ -1,13 +1,18 @@
 package back.event.controller;
 
+import back.event.model.AuthenticatedUser;
 import back.event.service.EventService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/events")
 public class UserEventsController {
@@ -18,36 +23,43 @@ public class UserEventsController {
     }
 
     @GetMapping("/users/{id}/participated")
-    public ResponseEntity<?> participated(@PathVariable int id) {
+    public ResponseEntity<?> participated(@PathVariable int id,
+            @RequestParam(defaultValue = "false") boolean stream, HttpServletResponse response) throws IOException {
+        if (stream) {
+            eventService.streamParticipatedEvents(id, EventController.jsonStream(response));
+            return null;
+        }
         return ResponseEntity.ok(eventService.getParticipatedEvents(id));
     }
 
     @GetMapping("/me/created")
-    public ResponseEntity<?> created(@RequestHeader("Authorization") String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> created(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(defaultValue = "false") boolean stream, HttpServletResponse response) throws IOException {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        return ResponseEntity.ok(eventService.getCreatedEvents(tokenWithoutPrefix));
+        if (stream) {
+            eventService.streamCreatedEvents(user.getId(), EventController.jsonStream(response));
+            return null;
+        }
+        return ResponseEntity.ok(eventService.getCreatedEvents(user.getId()));
     }
 
     @GetMapping("/me/participants/count")
-    public ResponseEntity<?> participantCount(@RequestHeader("Authorization") String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> participantCount(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        int count = eventService.getUserCountForMyEvents(tokenWithoutPrefix);
+        int count = eventService.getUserCountForMyEvents(user.getId());
         return ResponseEntity.ok("{\"count\":" + count + "}");
     }
 
     @GetMapping("/me/feedback/average-score")
-    public ResponseEntity<?> myAverageScore(@RequestHeader("Authorization") String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> myAverageScore(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
             return ResponseEntity.status(401).body("{\"error\":\"Null token\"}");
         }
-        String tokenWithoutPrefix = token.substring(7);
-        double score = eventService.getAverageScoreForMyAll(tokenWithoutPrefix);
+        double score = eventService.getAverageScoreForMyAll(user.getId());
         return ResponseEntity.ok("{\"score\":" + score + "}");
     }
 }
@@ -0,0 +1,25 @@
+package back.event.dto;
+
+import java.util.List;
+
+/**
+ * Страница {@code GET /events}: события и курсор следующей страницы
+ * ({@code null}, если страница последняя).
+ */
+public class EventPage {
+    private final List<? extends EventDTO> events;
+    private final String nextCursor;
+
+    public EventPage(List<? extends EventDTO> events, String nextCursor) {
+        this.events = events;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<? extends EventDTO> getEvents() {
+        return events;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
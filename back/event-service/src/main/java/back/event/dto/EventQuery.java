@@ -0,0 +1,128 @@
+package back.event.dto;
+
+import java.util.List;
+
+/**
+ * Параметры {@code GET /events}; Spring связывает их из query string.
+ * Все фильтры необязательны и сочетаются через AND.
+ */
+public class EventQuery {
+    private String category;
+    private String status;
+    private String from;
+    private String to;
+    private Double minPrice;
+    private Double maxPrice;
+    private List<String> tags;
+    /** {@code all} (по умолчанию) — событие содержит все {@code tags}, {@code any} — хотя бы один. */
+    private String tagMatch;
+    private Integer organizerId;
+    private String q;
+    private String sort;
+    private String cursor;
+    private Integer limit;
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public String getTagMatch() {
+        return tagMatch;
+    }
+
+    public void setTagMatch(String tagMatch) {
+        this.tagMatch = tagMatch;
+    }
+
+    public Integer getOrganizerId() {
+        return organizerId;
+    }
+
+    public void setOrganizerId(Integer organizerId) {
+        this.organizerId = organizerId;
+    }
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,51 @@
+package back.event.dto;
+
+/**
+ * Событие из {@code GET /events/search}: релевантность и фрагменты с
+ * найденными словами, обёрнутыми в {@code <mark>…</mark>}. Остальной текст
+ * фрагментов не экранирован — клиент вставляет их как HTML только после
+ * санитизации.
+ */
+public class EventSearchResultDTO extends EventDTO {
+    private float rank;
+    private String titleHighlight;
+    private String descriptionHighlight;
+
+    public EventSearchResultDTO() {
+    }
+
+    public EventSearchResultDTO(EventDTO event, float rank, String titleHighlight, String descriptionHighlight) {
+        super(event.getId(), event.getTitle(), event.getDescription(), event.getStartDate(), event.getEndDate(),
+                event.getAddress(), event.getLatitude(), event.getLongitude(), event.getOrganizerId(),
+                event.getOrganizerName(), event.getPrice(), event.getMaxParticipants(),
+                event.getRegisteredParticipants(), event.isHasQuiz(), event.getImages(), event.getEventCategory(),
+                event.getStatus(), event.getTags());
+        this.rank = rank;
+        this.titleHighlight = titleHighlight;
+        this.descriptionHighlight = descriptionHighlight;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public void setRank(float rank) {
+        this.rank = rank;
+    }
+
+    public String getTitleHighlight() {
+        return titleHighlight;
+    }
+
+    public void setTitleHighlight(String titleHighlight) {
+        this.titleHighlight = titleHighlight;
+    }
+
+    public String getDescriptionHighlight() {
+        return descriptionHighlight;
+    }
+
+    public void setDescriptionHighlight(String descriptionHighlight) {
+        this.descriptionHighlight = descriptionHighlight;
+    }
+}
@@ -0,0 +1,84 @@
+package back.event.dto;
+
+/**
+ * Отзыв о событии вместе с именем автора.
+ */
+public class FeedbackDTO {
+    private int id;
+    private int eventId;
+    private int userId;
+    private String userName;
+    private int rating;
+    private String comment;
+    private String createdAt;
+
+    public FeedbackDTO() {
+    }
+
+    public FeedbackDTO(int id, int eventId, int userId, String userName, int rating, String comment,
+            String createdAt) {
+        this.id = id;
+        this.eventId = eventId;
+        this.userId = userId;
+        this.userName = userName;
+        this.rating = rating;
+        this.comment = comment;
+        this.createdAt = createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public void setRating(int rating) {
+        this.rating = rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,25 @@
+package back.event.dto;
+
+import java.util.List;
+
+/**
+ * Страница {@code GET /events/{id}/feedback}: отзывы от новых к старым и
+ * курсор следующей страницы ({@code null}, если страница последняя).
+ */
+public class FeedbackPage {
+    private final List<FeedbackDTO> feedbacks;
+    private final String nextCursor;
+
+    public FeedbackPage(List<FeedbackDTO> feedbacks, String nextCursor) {
+        this.feedbacks = feedbacks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<FeedbackDTO> getFeedbacks() {
+        return feedbacks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,28 @@
+package back.event.dto;
+
+/**
+ * Событие из {@code GET /events/nearby} с расстоянием до точки запроса.
+ */
+public class NearbyEventDTO extends EventDTO {
+    private double distanceKm;
+
+    public NearbyEventDTO() {
+    }
+
+    public NearbyEventDTO(EventDTO event, double distanceKm) {
+        super(event.getId(), event.getTitle(), event.getDescription(), event.getStartDate(), event.getEndDate(),
+                event.getAddress(), event.getLatitude(), event.getLongitude(), event.getOrganizerId(),
+                event.getOrganizerName(), event.getPrice(), event.getMaxParticipants(),
+                event.getRegisteredParticipants(), event.isHasQuiz(), event.getImages(), event.getEventCategory(),
+                event.getStatus(), event.getTags());
+        this.distanceKm = distanceKm;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,77 @@
+package back.event.dto;
+
+/**
+ * Прогресс рассылки: число получателей по статусам доставки.
+ */
+public class NewsletterProgressDTO {
+    private long jobId;
+    private int eventId;
+    private int total;
+    private int sent;
+    private int failed;
+    private int pending;
+
+    public NewsletterProgressDTO() {
+    }
+
+    public NewsletterProgressDTO(long jobId, int eventId, int total, int sent, int failed, int pending) {
+        this.jobId = jobId;
+        this.eventId = eventId;
+        this.total = total;
+        this.sent = sent;
+        this.failed = failed;
+        this.pending = pending;
+    }
+
+    public long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(long jobId) {
+        this.jobId = jobId;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSent() {
+        return sent;
+    }
+
+    public void setSent(int sent) {
+        this.sent = sent;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public boolean isDone() {
+        return pending == 0;
+    }
+}
@@ -0,0 +1,56 @@
+package back.event.dto;
+
+import java.util.List;
+
+/**
+ * Оценки события: среднее, число и гистограмма — {@code histogram.get(i)}
+ * отзывов с оценкой {@code i + 1}.
+ */
+public class RatingSummaryDTO {
+    private int eventId;
+    private double average;
+    private int count;
+    private List<Integer> histogram;
+
+    public RatingSummaryDTO() {
+    }
+
+    public RatingSummaryDTO(int eventId, double average, int count, List<Integer> histogram) {
+        this.eventId = eventId;
+        this.average = average;
+        this.count = count;
+        this.histogram = histogram;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public void setAverage(double average) {
+        this.average = average;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<Integer> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(List<Integer> histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -0,0 +1,39 @@
+package back.event.dto;
+
+import back.event.model.enums.ImportRowStatus;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отчёт массового импорта: итог по каждой строке и число строк по статусам.
+ */
+public class RegistrationImportReport {
+    private final int eventId;
+    private final List<RegistrationImportRow> rows;
+    private final Map<ImportRowStatus, Integer> totals = new EnumMap<>(ImportRowStatus.class);
+
+    public RegistrationImportReport(int eventId, List<RegistrationImportRow> rows) {
+        this.eventId = eventId;
+        this.rows = rows;
+        for (ImportRowStatus status : ImportRowStatus.values()) {
+            totals.put(status, 0);
+        }
+        for (RegistrationImportRow row : rows) {
+            totals.merge(row.getStatus(), 1, Integer::sum);
+        }
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    public Map<ImportRowStatus, Integer> getTotals() {
+        return totals;
+    }
+
+    public List<RegistrationImportRow> getRows() {
+        return rows;
+    }
+}
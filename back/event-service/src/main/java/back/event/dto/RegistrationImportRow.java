@@ -0,0 +1,45 @@
+package back.event.dto;
+
+import back.event.model.enums.ImportRowStatus;
+
+/**
+ * Строка отчёта импорта: номер строки в файле (с учётом заголовка), email и итог.
+ */
+public class RegistrationImportRow {
+    private int row;
+    private String email;
+    private ImportRowStatus status;
+
+    public RegistrationImportRow() {
+    }
+
+    public RegistrationImportRow(int row, String email, ImportRowStatus status) {
+        this.row = row;
+        this.email = email;
+        this.status = status;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public ImportRowStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportRowStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,34 @@
+package back.event.model;
+
+/**
+ * Пользователь текущего запроса, определённый один раз в
+ * {@code AuthenticatedUserFilter}; контроллеры получают его через
+ * {@code @AuthenticationPrincipal}, сервисы — id и роль вместо токена.
+ */
+public final class AuthenticatedUser {
+    private final int id;
+    private final String email;
+    private final String role;
+
+    public AuthenticatedUser(int id, String email, String role) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public boolean isAdmin() {
+        return "admin".equals(role);
+    }
+}
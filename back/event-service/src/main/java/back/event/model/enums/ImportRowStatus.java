@@ -0,0 +1,12 @@
+package back.event.model.enums;
+
+/**
+ * Результат строки массового импорта регистраций.
+ */
+public enum ImportRowStatus {
+    REGISTERED,
+    WAITLISTED,
+    ALREADY_REGISTERED,
+    USER_NOT_FOUND,
+    DUPLICATE_ROW
+}
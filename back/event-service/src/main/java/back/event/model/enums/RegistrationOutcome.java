@@ -0,0 +1,22 @@
+package back.event.model.enums;
+
+/**
+ * Результат функции {@code register_for_event}; {@link #getMessage()} —
+ * прежний текст ответа API.
+ */
+public enum RegistrationOutcome {
+    REGISTERED("Registration successful."),
+    ALREADY_REGISTERED("Already registered."),
+    WAITLISTED("Event is full, added to the waitlist."),
+    EVENT_NOT_FOUND("Event not found.");
+
+    private final String message;
+
+    RegistrationOutcome(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,247 @@
+package back.event.service;
+
+import back.event.dto.EventDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Кэш карточек {@code GET /events/{id}}: хранит уже сериализованный JSON,
+ * поэтому попадание не трогает ни БД, ни Jackson.
+ *
+ * <p>
+ * Запись живёт {@code event.cache.ttl} и удаляется раньше:
+ * <ul>
+ * <li>локально — сразу после изменения события, регистрации и отмены в этом инстансе;</li>
+ * <li>во всех инстансах — по {@code NOTIFY event_changed} из триггера на
+ * {@code "Event"} (слушатель держит одно соединение из пула). Пока слушатель
+ * переподключается, кэш сбрасывается целиком, чтобы пропущенные уведомления
+ * не оставили устаревших записей дольше TTL.</li>
+ * </ul>
+ *
+ * <p>
+ * Загрузка, начатая до инвалидации своего id, в кэш не попадает: инвалидация
+ * оставляет метку с номером из общего счётчика, и запись кладётся, только если
+ * метка не новее начала загрузки. Инвалидация одного события не мешает
+ * кэшировать остальные. При {@code event.cache.max-entries} удаляются метки,
+ * истёкшие записи и десятая часть самых старых, а не весь кэш.
+ */
+@Service
+public class EventCache {
+    static final String CHANNEL = "event_changed";
+
+    private static final Logger logger = LoggerFactory.getLogger(EventCache.class);
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    /** Запись кэша или, при {@code json == null}, метка инвалидации. */
+    private static final class CacheEntry {
+        final long version;
+        final long expiresAt;
+        final byte[] json;
+
+        CacheEntry(long version, long expiresAt, byte[] json) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+            this.json = json;
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, CacheEntry> entries = new ConcurrentHashMap<>();
+    // Растёт при каждой инвалидации; загрузка запоминает значение до чтения из БД.
+    private final AtomicLong version = new AtomicLong();
+    // Наибольшая версия среди удалённых записей и меток: без записи по id
+    // загрузка старше неё не кэшируется, ведь её метку могли вытеснить.
+    private final AtomicLong evictedVersion = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final long ttlMs;
+    private final int maxEntries;
+    private volatile boolean running;
+    private Thread listener;
+
+    public EventCache(DataSource dataSource, ObjectMapper objectMapper,
+            @Value("${event.cache.ttl:30s}") Duration ttl,
+            @Value("${event.cache.max-entries:10000}") int maxEntries) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.ttlMs = ttl.toMillis();
+        this.maxEntries = Math.max(maxEntries, 1);
+    }
+
+    /**
+     * @param loader чтение события из БД, {@code null} — события нет
+     * @return JSON события или {@code null}
+     */
+    public byte[] get(int id, IntFunction<EventDTO> loader) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = entries.get(id);
+        if (entry != null && entry.json != null && now <= entry.expiresAt) {
+            return entry.json;
+        }
+
+        long loadedAt = version.get();
+        EventDTO event = loader.apply(id);
+        if (event == null) {
+            return null;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event " + id, e);
+        }
+
+        if (ttlMs > 0 && running) {
+            if (entries.size() >= maxEntries) {
+                evict(now);
+            }
+            CacheEntry loaded = new CacheEntry(loadedAt, now + ttlMs, json);
+            entries.compute(id, (key, current) -> {
+                long newest = current != null ? current.version : evictedVersion.get();
+                return newest > loadedAt ? current : loaded;
+            });
+        }
+        return json;
+    }
+
+    public void invalidate(int id) {
+        entries.put(id, new CacheEntry(version.incrementAndGet(), 0, null));
+    }
+
+    public void invalidateAll() {
+        evictedVersion.accumulateAndGet(version.incrementAndGet(), Math::max);
+        entries.clear();
+    }
+
+    /**
+     * Удаляет метки и истёкшие записи, затем, если места всё ещё нет, десятую
+     * часть записей с самым ранним сроком. Чистит один поток, остальные не ждут.
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.forEach((id, entry) -> {
+                if (entry.json == null || now > entry.expiresAt) {
+                    remove(id, entry);
+                }
+            });
+            int excess = entries.size() - maxEntries * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<Integer, CacheEntry>> oldest = new ArrayList<>(entries.entrySet());
+            oldest.sort(Comparator.comparingLong(e -> e.getValue().expiresAt));
+            for (int i = 0; i < excess && i < oldest.size(); i++) {
+                remove(oldest.get(i).getKey(), oldest.get(i).getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void remove(int id, CacheEntry entry) {
+        if (entries.remove(id, entry)) {
+            evictedVersion.accumulateAndGet(entry.version, Math::max);
+        }
+    }
+
+    /** Подключён ли слушатель; без него записи в кэш не попадают. */
+    boolean isListening() {
+        return running;
+    }
+
+    @PostConstruct
+    void start() {
+        if (ttlMs <= 0) {
+            return;
+        }
+        listener = new Thread(this::listen, "event-cache-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /** Останавливает слушателя и ждёт его завершения не дольше двух интервалов опроса. */
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener == null) {
+            return;
+        }
+        listener.interrupt();
+        try {
+            listener.join(POLL_TIMEOUT_MS * 2L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void listen() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                invalidateAll();
+                running = true;
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        invalidate(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                logger.warn("Event cache listener disconnected: {}", e.getMessage());
+            } finally {
+                running = false;
+                invalidateAll();
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void invalidate(String payload) {
+        try {
+            invalidate(Integer.parseInt(payload));
+        } catch (NumberFormatException e) {
+            invalidateAll();
+        }
+    }
+}
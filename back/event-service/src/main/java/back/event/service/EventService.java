@@ -1,30 +1,107 @@
 package back.event.service;
 
 import back.event.dto.EventDTO;
+import back.event.dto.EventPage;
+import back.event.dto.EventQuery;
+import back.event.dto.EventSearchResultDTO;
+import back.event.dto.FeedbackDTO;
+import back.event.dto.FeedbackPage;
+import back.event.dto.NearbyEventDTO;
+import back.event.dto.RatingSummaryDTO;
 import back.event.dto.UserDTO;
-import back.event.model.User;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import back.event.model.enums.RegistrationOutcome;
+import back.event.util.EventCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
-
-import java.io.UnsupportedEncodingException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class EventService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_FILTER_TAGS = 10;
+    private static final double MAX_NEARBY_RADIUS_KM = 500;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final String NEARBY_SORT = "distance";
+    private static final String SEARCH_SORT = "relevance";
+    private static final int MAX_SEARCH_TERMS = 8;
+    private static final Pattern SEARCH_WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final String FEEDBACK_SORT = "feedback";
+    private static final String FEEDBACK_SELECT = """
+            SELECT f.\"ID\", f.\"event\", f.\"user\", u.\"name\", f.\"rating\", f.\"comment\", f.\"createdAt\"
+            FROM \"Feedback\" f
+            JOIN \"User\" u ON f.\"user\" = u.\"ID\"
+            """;
+    private static final String REGISTERED_USERS_SQL = """
+            SELECT u.\"ID\", u.\"name\", u.\"email\", u.\"phoneNumber\"
+            FROM \"Registration\" r
+            JOIN \"User\" u ON r.\"member\" = u.\"ID\"
+            WHERE r.\"event\" = ?
+            """;
+    private static final String PARTICIPATED_EVENTS_SQL = """
+            SELECT e.\"ID\", e.\"title\", e.\"description\", e.\"startDate\", e.\"endDate\", e.\"address\", e.\"latitude\", e.\"longitude\",
+            e.\"organizerId\", e.\"organizerName\", e.\"price\", e.\"maxParticipants\", e.\"registeredParticipants\", e.\"hasQuiz\",
+            e.\"images\", e.\"eventCategory\", e.\"status\", e.\"tags\"
+            FROM \"Registration\" r
+            JOIN \"Event\" e ON r.\"event\" = e.\"ID\"
+            WHERE r.\"member\" = ?
+            """;
+    private static final String CREATED_EVENTS_SQL = """
+            SELECT \"ID\", \"title\", \"description\", \"startDate\", \"endDate\", \"address\", \"latitude\", \"longitude\",
+            \"organizerId\", \"organizerName\", \"price\", \"maxParticipants\", \"registeredParticipants\", \"hasQuiz\",
+            \"images\", \"eventCategory\", \"status\", \"tags\"
+            FROM \"Event\"
+            WHERE \"organizerId\" = ?
+            """;
+
     private final JdbcTemplate jdbcTemplate;
-    private final UserService userService;
-    private final JavaMailSender javaMailSender;
+    private final WaitlistNotifier waitlistNotifier;
+    private final EventCache eventCache;
+    private final ObjectMapper objectMapper;
+    private final int streamFetchSize;
 
-    public EventService(JdbcTemplate jdbcTemplate, UserService userService, JavaMailSender javaMailSender) {
+    public EventService(JdbcTemplate jdbcTemplate, WaitlistNotifier waitlistNotifier, EventCache eventCache,
+            ObjectMapper objectMapper, @Value("${event.stream.fetch-size:500}") int streamFetchSize) {
         this.jdbcTemplate = jdbcTemplate;
-        this.userService = userService;
-        this.javaMailSender = javaMailSender;
+        this.waitlistNotifier = waitlistNotifier;
+        this.eventCache = eventCache;
+        this.objectMapper = objectMapper;
+        this.streamFetchSize = Math.max(streamFetchSize, 1);
+    }
+
+    /**
+     * Карточка события для {@code GET /events/{id}} через {@link EventCache}.
+     *
+     * @return JSON события или {@code null}, если его нет
+     */
+    public byte[] getEventJson(int id) {
+        return eventCache.get(id, this::getEventById);
     }
 
     public EventDTO getEventById(int id) {
@@ -37,51 +114,23 @@ public class EventService {
                 """;
 
         try {
-            return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
-                String imagesString = rs.getString("images");
-                List<String> imagesList = imagesString != null && !imagesString.isEmpty()
-                        ? List.of(imagesString.split(","))
-                        : new ArrayList<>();
-
-                String tagsString = rs.getString("tags");
-                List<String> tagsList = tagsString != null && !tagsString.isEmpty()
-                        ? List.of(tagsString.split(","))
-                        : new ArrayList<>();
-
-                return new EventDTO(
-                        rs.getInt("ID"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getString("startDate"),
-                        rs.getString("endDate"),
-                        rs.getString("address"),
-                        rs.getDouble("latitude"),
-                        rs.getDouble("longitude"),
-                        rs.getInt("organizerId"),
-                        rs.getString("organizerName"),
-                        rs.getDouble("price"),
-                        rs.getInt("maxParticipants"),
-                        rs.getInt("registeredParticipants"),
-                        rs.getBoolean("hasQuiz"),
-                        imagesList,
-                        rs.getString("eventCategory"),
-                        rs.getString("status"),
-                        tagsList);
-            }, id);
+            return jdbcTemplate.queryForObject(sql, EventService::mapEvent, id);
         } catch (Exception e) {
             return null;
         }
     }
 
-    public String addEvent(String token, EventDTO dto) {
+    /**
+     * @param organizerId id пользователя запроса
+     * @param role        его роль ({@code organizer}, {@code admin}, ...)
+     */
+    public String addEvent(int organizerId, String role, EventDTO dto) {
         if (dto.getTitle() == null || dto.getDescription() == null || dto.getStartDate() == null
                 || dto.getEndDate() == null || dto.getAddress() == null) {
             return "All event fields must be provided. " + dto;
         }
 
-        String email = userService.extractEmail(token);
-        String userRole = userService.getUserRole(token);
-        if (userRole == null || (!userRole.equals("admin") && !userRole.equals("organizer"))) {
+        if (role == null || (!role.equals("admin") && !role.equals("organizer"))) {
             return "Only organizers or admins can create events.";
         }
 
@@ -89,68 +138,71 @@ public class EventService {
                 INSERT INTO \"Event\" (\"title\", \"description\", \"startDate\", \"endDate\", \"address\", \"latitude\", \"longitude\",
                 \"organizerId\", \"organizerName\", \"price\", \"maxParticipants\", \"registeredParticipants\", \"hasQuiz\", \"images\",
                 \"eventCategory\", \"status\", \"tags\")
-                SELECT ?, ?, CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), ?, ?, ?, \"ID\", ?, ?, ?, ?, ?, ?, ?, ?, ?
-                FROM \"User\" WHERE LOWER(\"email\") = LOWER(?)
+                VALUES (?, ?, CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), ?, ?, ?, ?, ?, ?, ?, 0, ?, ?::TEXT[], ?, ?, ?::TEXT[])
                 """;
 
-        String tagsString = dto.getTags() != null ? String.join(",", dto.getTags()) : "";
         String status = dto.getStatus() != null ? dto.getStatus() : "active";
 
         jdbcTemplate.update(insertSql, dto.getTitle(), dto.getDescription(), dto.getStartDate(), dto.getEndDate(),
-                dto.getAddress(), dto.getLatitude(), dto.getLongitude(), dto.getOrganizerName(),
-                dto.getPrice(), dto.getMaxParticipants(), dto.getRegisteredParticipants(), dto.isHasQuiz(),
-                dto.getImages() != null ? String.join(",", dto.getImages()) : "", dto.getEventCategory(), status,
-                tagsString, email);
+                dto.getAddress(), dto.getLatitude(), dto.getLongitude(), organizerId, dto.getOrganizerName(),
+                dto.getPrice(), dto.getMaxParticipants(), dto.isHasQuiz(),
+                toImageArray(dto.getImages()), dto.getEventCategory(), status, toTagArray(dto.getTags()));
 
         return "Event created successfully.";
     }
 
-    public String updateEvent(String token, int eventId, EventDTO dto) {
-        String role = userService.getUserRole(token);
-        String email = userService.extractEmail(token);
-
+    /**
+     * Новая вместимость и продвижение очереди ожидания коммитятся вместе;
+     * письма продвинутым уходят после коммита.
+     */
+    @Transactional
+    public String updateEvent(int userId, String role, int eventId, EventDTO dto) {
         if ("admin".equals(role)) {
             String sql = """
                     UPDATE \"Event\"
                     SET \"title\" = ?, \"description\" = ?, \"startDate\" = CAST(? AS TIMESTAMP), \"endDate\" = CAST(? AS TIMESTAMP),
                     \"address\" = ?, \"latitude\" = ?, \"longitude\" = ?, \"price\" = ?, \"maxParticipants\" = ?,
-                    \"registeredParticipants\" = ?, \"hasQuiz\" = ?, \"images\" = ?, \"eventCategory\" = ?, \"status\" = ?, \"tags\" = ?
+                    \"hasQuiz\" = ?, \"images\" = ?::TEXT[], \"eventCategory\" = ?, \"status\" = ?,
+                    \"tags\" = ?::TEXT[]
                     WHERE \"ID\" = ?
                     """;
 
-            String tagsString = dto.getTags() != null ? String.join(",", dto.getTags()) : "";
             String status = dto.getStatus() != null ? dto.getStatus() : "active";
 
             jdbcTemplate.update(sql, dto.getTitle(), dto.getDescription(), dto.getStartDate(), dto.getEndDate(),
                     dto.getAddress(), dto.getLatitude(), dto.getLongitude(), dto.getPrice(),
-                    dto.getMaxParticipants(), dto.getRegisteredParticipants(), dto.isHasQuiz(),
-                    dto.getImages() != null ? String.join(",", dto.getImages()) : "", dto.getEventCategory(), status,
-                    tagsString, eventId);
+                    dto.getMaxParticipants(), dto.isHasQuiz(),
+                    toImageArray(dto.getImages()), dto.getEventCategory(), status,
+                    toTagArray(dto.getTags()), eventId);
+            promoteWaitlist(eventId);
+            eventCache.invalidate(eventId);
 
             return "Event updated successfully.";
         }
 
         String checkOrganizerSql = """
-                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ? AND \"organizerId\" = (SELECT \"ID\" FROM \"User\" WHERE LOWER(\"email\") = LOWER(?))
+                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ? AND \"organizerId\" = ?
                 """;
-        Integer count = jdbcTemplate.queryForObject(checkOrganizerSql, Integer.class, eventId, email);
+        Integer count = jdbcTemplate.queryForObject(checkOrganizerSql, Integer.class, eventId, userId);
         if (count != null && count > 0) {
             String sql = """
                     UPDATE \"Event\"
                     SET \"title\" = ?, \"description\" = ?, \"startDate\" = CAST(? AS TIMESTAMP), \"endDate\" = CAST(? AS TIMESTAMP),
                     \"address\" = ?, \"latitude\" = ?, \"longitude\" = ?, \"price\" = ?, \"maxParticipants\" = ?,
-                    \"registeredParticipants\" = ?, \"hasQuiz\" = ?, \"images\" = ?, \"eventCategory\" = ?, \"status\" = ?, \"tags\" = ?
+                    \"hasQuiz\" = ?, \"images\" = ?::TEXT[], \"eventCategory\" = ?, \"status\" = ?,
+                    \"tags\" = ?::TEXT[]
                     WHERE \"ID\" = ?
                     """;
 
-            String tagsString = dto.getTags() != null ? String.join(",", dto.getTags()) : "";
             String status = dto.getStatus() != null ? dto.getStatus() : "active";
 
             jdbcTemplate.update(sql, dto.getTitle(), dto.getDescription(), dto.getStartDate(), dto.getEndDate(),
                     dto.getAddress(), dto.getLatitude(), dto.getLongitude(), dto.getPrice(),
-                    dto.getMaxParticipants(), dto.getRegisteredParticipants(), dto.isHasQuiz(),
-                    dto.getImages() != null ? String.join(",", dto.getImages()) : "", dto.getEventCategory(), status,
-                    tagsString, eventId);
+                    dto.getMaxParticipants(), dto.isHasQuiz(),
+                    toImageArray(dto.getImages()), dto.getEventCategory(), status,
+                    toTagArray(dto.getTags()), eventId);
+            promoteWaitlist(eventId);
+            eventCache.invalidate(eventId);
 
             return "Event updated successfully.";
         }
@@ -158,136 +210,513 @@ public class EventService {
         return "Only the event organizer or admins can edit events.";
     }
 
-    public String deleteEvent(String token, int eventId) {
-        String role = userService.getUserRole(token);
-        String email = userService.extractEmail(token);
+    /**
+     * Отдаёт освободившиеся места (например, после увеличения
+     * {@code maxParticipants}) первым в очереди ожидания и уведомляет их.
+     */
+    private void promoteWaitlist(int eventId) {
+        List<Integer> promoted = jdbcTemplate.queryForList("SELECT promote_waitlist(?)", Integer.class, eventId);
+        if (promoted.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Integer member : promoted) {
+                    waitlistNotifier.notifyPromoted(member, eventId);
+                }
+            }
+        });
+    }
 
+    public String deleteEvent(int userId, String role, int eventId) {
         if ("admin".equals(role)) {
             String sql = "DELETE FROM \"Event\" WHERE \"ID\" = ?";
             jdbcTemplate.update(sql, eventId);
+            eventCache.invalidate(eventId);
             return "Event deleted.";
         }
 
         String checkOrganizerSql = """
-                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ? AND \"organizerId\" = (SELECT \"ID\" FROM \"User\" WHERE LOWER(\"email\") = LOWER(?))
+                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ? AND \"organizerId\" = ?
                 """;
-        Integer count = jdbcTemplate.queryForObject(checkOrganizerSql, Integer.class, eventId, email);
+        Integer count = jdbcTemplate.queryForObject(checkOrganizerSql, Integer.class, eventId, userId);
         if (count != null && count > 0) {
             String sql = "DELETE FROM \"Event\" WHERE \"ID\" = ?";
             jdbcTemplate.update(sql, eventId);
+            eventCache.invalidate(eventId);
             return "Event deleted.";
         }
 
         return "Only the event organizer or admins can delete events.";
     }
 
-    public List<EventDTO> getAllEvents() {
-        String sql = """
+    /**
+     * Страница каталога {@code GET /events}: фильтры, сортировка и
+     * keyset-пагинация выполняются в Postgres, в Java приходит не больше
+     * {@code limit + 1} строк.
+     *
+     * @throws IllegalArgumentException при неверных параметрах или курсоре
+     */
+    public EventPage findEvents(EventQuery query) {
+        EventSort sort = EventSort.fromParam(query.getSort());
+        int limit = query.getLimit() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(query.getLimit(), MAX_PAGE_SIZE));
+
+        StringBuilder sql = new StringBuilder("""
                 SELECT \"ID\", \"title\", \"description\", \"startDate\", \"endDate\", \"address\", \"latitude\", \"longitude\",
                 \"organizerId\", \"organizerName\", \"price\", \"maxParticipants\", \"registeredParticipants\", \"hasQuiz\",
                 \"images\", \"eventCategory\", \"status\", \"tags\"
                 FROM \"Event\"
-                """;
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            String imagesString = rs.getString("images");
-            List<String> imagesList = imagesString != null && !imagesString.isEmpty() ? List.of(imagesString.split(","))
-                    : new ArrayList<>();
-
-            String tagsString = rs.getString("tags");
-            List<String> tagsList = tagsString != null && !tagsString.isEmpty() ? List.of(tagsString.split(","))
-                    : new ArrayList<>();
-
-            return new EventDTO(
-                    rs.getInt("ID"),
-                    rs.getString("title"),
-                    rs.getString("description"),
-                    rs.getString("startDate"),
-                    rs.getString("endDate"),
-                    rs.getString("address"),
-                    rs.getDouble("latitude"),
-                    rs.getDouble("longitude"),
-                    rs.getInt("organizerId"),
-                    rs.getString("organizerName"),
-                    rs.getDouble("price"),
-                    rs.getInt("maxParticipants"),
-                    rs.getInt("registeredParticipants"),
-                    rs.getBoolean("hasQuiz"),
-                    imagesList,
-                    rs.getString("eventCategory"),
-                    rs.getString("status"),
-                    tagsList);
-        });
-    }
+                WHERE TRUE
+                """);
+        List<Object> args = new ArrayList<>();
 
-    public String registerForEvent(String token, int eventId) {
-        String email = userService.extractEmail(token);
-        if (email == null) {
-            return "Invalid token.";
+        if (query.getCategory() != null && !query.getCategory().isBlank()) {
+            sql.append(" AND LOWER(\"eventCategory\") = LOWER(?)");
+            args.add(query.getCategory().trim());
+        }
+        if (query.getStatus() != null && !query.getStatus().isBlank()) {
+            sql.append(" AND \"status\" = ?");
+            args.add(query.getStatus().trim());
+        }
+        if (query.getOrganizerId() != null) {
+            sql.append(" AND \"organizerId\" = ?");
+            args.add(query.getOrganizerId());
+        }
+        if (query.getFrom() != null && !query.getFrom().isBlank()) {
+            sql.append(" AND \"endDate\" >= ?");
+            args.add(Timestamp.valueOf(parseDateTime(query.getFrom(), false)));
+        }
+        if (query.getTo() != null && !query.getTo().isBlank()) {
+            sql.append(" AND \"startDate\" < ?");
+            args.add(Timestamp.valueOf(parseDateTime(query.getTo(), true)));
+        }
+        if (query.getMinPrice() != null) {
+            sql.append(" AND COALESCE(\"price\", 0) >= ?");
+            args.add(query.getMinPrice());
         }
-        User user = userService.getUserByEmail(email);
-        if (user == null) {
-            return "User not found.";
+        if (query.getMaxPrice() != null) {
+            sql.append(" AND COALESCE(\"price\", 0) <= ?");
+            args.add(query.getMaxPrice());
+        }
+        List<String> tags = query.getTags() == null ? List.of()
+                : query.getTags().stream().map(String::trim).filter(tag -> !tag.isEmpty()).distinct().toList();
+        if (tags.size() > MAX_FILTER_TAGS) {
+            throw new IllegalArgumentException("Too many tags, at most " + MAX_FILTER_TAGS + " allowed.");
+        }
+        if (!tags.isEmpty()) {
+            // @> (все теги) и && (любой из тегов) обслуживает GIN-индекс idx_event_tags.
+            sql.append(" AND \"tags\" ").append(TagMatch.fromParam(query.getTagMatch()).operator).append(" ?::TEXT[]");
+            args.add(tags.toArray(String[]::new));
+        }
+        String tsQuery = toPrefixTsQuery(query.getQ());
+        if (tsQuery != null) {
+            sql.append(" AND \"searchVector\" @@ to_tsquery('simple', ?)");
+            args.add(tsQuery);
         }
 
-        String checkEventSql = """
-                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ?
-                """;
-        Integer eventExists = jdbcTemplate.queryForObject(checkEventSql, Integer.class, eventId);
-        if (eventExists == null || eventExists == 0) {
-            return "Event not found.";
+        if (query.getCursor() != null && !query.getCursor().isBlank()) {
+            EventCursor cursor = EventCursor.decode(query.getCursor());
+            if (!sort.param.equals(cursor.getSort())) {
+                throw new IllegalArgumentException("Cursor does not match sort order.");
+            }
+            String op = sort.descending ? "<" : ">";
+            if (sort.key == null) {
+                sql.append(" AND \"ID\" ").append(op).append(" ?");
+            } else {
+                sql.append(" AND (").append(sort.key).append(", \"ID\") ").append(op)
+                        .append(" (").append(sort.cursorCast).append(", ?)");
+                args.add(cursor.getValue());
+            }
+            args.add(cursor.getId());
         }
 
-        String checkCapacitySql = """
-                SELECT \"maxParticipants\", \"registeredParticipants\" FROM \"Event\" WHERE \"ID\" = ?
-                """;
-        Map<String, Object> capacityInfo = jdbcTemplate.queryForMap(checkCapacitySql, eventId);
-        int maxParticipants = ((Number) capacityInfo.get("maxParticipants")).intValue();
-        int registeredParticipants = ((Number) capacityInfo.get("registeredParticipants")).intValue();
+        String direction = sort.descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ");
+        if (sort.key != null) {
+            sql.append(sort.key).append(direction).append(", ");
+        }
+        sql.append("\"ID\"").append(direction).append(" LIMIT ?");
+        args.add(limit + 1);
 
-        if (maxParticipants > 0 && registeredParticipants >= maxParticipants) {
-            return "Event is full.";
+        List<EventDTO> rows = jdbcTemplate.query(sql.toString(), EventService::mapEvent, args.toArray());
+        if (rows.size() <= limit) {
+            return new EventPage(rows, null);
         }
+        List<EventDTO> page = rows.subList(0, limit);
+        EventDTO last = page.get(limit - 1);
+        return new EventPage(new ArrayList<>(page), new EventCursor(sort.param, sort.cursorValue(last), last.getId())
+                .encode());
+    }
 
-        String checkRegistrationSql = """
-                SELECT COUNT(*) FROM \"Registration\" WHERE \"event\" = ? AND \"member\" = ?
-                """;
-        Integer count = jdbcTemplate.queryForObject(checkRegistrationSql, Integer.class, eventId, user.getId());
-        if (count != null && count > 0) {
-            return "Already registered.";
+    /**
+     * События в радиусе {@code radiusKm} от точки, ближайшие первыми.
+     *
+     * <p>
+     * Кандидаты отбираются по GiST-индексу {@code idx_event_location}
+     * (прямоугольник вокруг окружности), точное расстояние по формуле
+     * гаверсинуса считается только для них. Продолжение — keyset по
+     * ({@code distanceKm}, {@code "ID"}).
+     *
+     * @throws IllegalArgumentException при неверных координатах, радиусе или курсоре
+     */
+    public EventPage findNearby(double latitude, double longitude, double radiusKm, Integer limit, String cursor) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates.");
+        }
+        if (!(radiusKm > 0) || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("radiusKm must be in (0, " + (int) MAX_NEARBY_RADIUS_KM + "].");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double minLat = Math.max(latitude - latDelta, -90);
+        double maxLat = Math.min(latitude + latDelta, 90);
+        double minLng = -180;
+        double maxLng = 180;
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        if (cosLat > 1e-6) {
+            double lngDelta = latDelta / cosLat;
+            // Через антимеридиан прямоугольник не строим — берём всю долготу.
+            if (longitude - lngDelta >= -180 && longitude + lngDelta <= 180) {
+                minLng = longitude - lngDelta;
+                maxLng = longitude + lngDelta;
+            }
         }
 
-        String registerSql = """
-                INSERT INTO \"Registration\" (\"event\", \"member\") VALUES (?, ?)
-                """;
-        jdbcTemplate.update(registerSql, eventId, user.getId());
-        return "Registration successful.";
+        StringBuilder sql = new StringBuilder("""
+                SELECT * FROM (
+                    SELECT \"ID\", \"title\", \"description\", \"startDate\", \"endDate\", \"address\", \"latitude\", \"longitude\",
+                    \"organizerId\", \"organizerName\", \"price\", \"maxParticipants\", \"registeredParticipants\", \"hasQuiz\",
+                    \"images\", \"eventCategory\", \"status\", \"tags\",
+                    2 * ? * ASIN(SQRT(
+                        POWER(SIN(RADIANS(\"latitude\" - ?) / 2), 2)
+                        + COS(RADIANS(?)) * COS(RADIANS(\"latitude\")) * POWER(SIN(RADIANS(\"longitude\" - ?) / 2), 2)
+                    )) AS \"distanceKm\"
+                    FROM \"Event\"
+                    WHERE \"latitude\" IS NOT NULL AND \"longitude\" IS NOT NULL
+                    AND point(\"longitude\", \"latitude\") <@ box(point(?, ?), point(?, ?))
+                ) nearby
+                WHERE \"distanceKm\" <= ?
+                """);
+        List<Object> args = new ArrayList<>(List.of(EARTH_RADIUS_KM, latitude, latitude, longitude,
+                minLng, minLat, maxLng, maxLat, radiusKm));
+
+        if (cursor != null && !cursor.isBlank()) {
+            EventCursor decoded = EventCursor.decode(cursor);
+            if (!NEARBY_SORT.equals(decoded.getSort())) {
+                throw new IllegalArgumentException("Cursor does not match sort order.");
+            }
+            double distance;
+            try {
+                distance = Double.parseDouble(decoded.getValue());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            sql.append(" AND (\"distanceKm\", \"ID\") > (?, ?)");
+            args.add(distance);
+            args.add(decoded.getId());
+        }
+        sql.append(" ORDER BY \"distanceKm\", \"ID\" LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<NearbyEventDTO> rows = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new NearbyEventDTO(mapEvent(rs, rowNum), rs.getDouble("distanceKm")),
+                args.toArray());
+        if (rows.size() <= pageSize) {
+            return new EventPage(rows, null);
+        }
+        NearbyEventDTO last = rows.get(pageSize - 1);
+        return new EventPage(new ArrayList<>(rows.subList(0, pageSize)),
+                new EventCursor(NEARBY_SORT, Double.toString(last.getDistanceKm()), last.getId()).encode());
     }
 
-    public List<UserDTO> getRegisteredUsers(String token, int eventId) {
+    /**
+     * Полнотекстовый поиск по названию, тегам, описанию и адресу (веса
+     * A–D), самые релевантные первыми. Каждое слово запроса ищется как
+     * префикс, поэтому метод подходит и для подсказок при вводе.
+     *
+     * <p>
+     * Кандидаты выбираются по GIN-индексу {@code idx_event_search};
+     * {@code ts_headline} считается только для строк страницы.
+     *
+     * @throws IllegalArgumentException если в запросе нет слов или курсор неверен
+     */
+    public EventPage search(String text, Integer limit, String cursor) {
+        String tsQuery = toPrefixTsQuery(text);
+        if (tsQuery == null) {
+            throw new IllegalArgumentException("Search query must contain at least one word.");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        StringBuilder inner = new StringBuilder("""
+                SELECT e.\"ID\", e.\"title\", e.\"description\", e.\"startDate\", e.\"endDate\", e.\"address\",
+                e.\"latitude\", e.\"longitude\", e.\"organizerId\", e.\"organizerName\", e.\"price\", e.\"maxParticipants\",
+                e.\"registeredParticipants\", e.\"hasQuiz\", e.\"images\", e.\"eventCategory\", e.\"status\", e.\"tags\",
+                ts_rank_cd(e.\"searchVector\", query) AS \"rank\", query
+                FROM \"Event\" e, to_tsquery('simple', ?) query
+                WHERE e.\"searchVector\" @@ query
+                """);
+        List<Object> args = new ArrayList<>();
+        args.add(tsQuery);
+
+        if (cursor != null && !cursor.isBlank()) {
+            EventCursor decoded = EventCursor.decode(cursor);
+            if (!SEARCH_SORT.equals(decoded.getSort())) {
+                throw new IllegalArgumentException("Cursor does not match sort order.");
+            }
+            float rank;
+            try {
+                rank = Float.parseFloat(decoded.getValue());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            inner.append(" AND (ts_rank_cd(e.\"searchVector\", query) < ?"
+                    + " OR (ts_rank_cd(e.\"searchVector\", query) = ? AND e.\"ID\" > ?))");
+            args.add(rank);
+            args.add(rank);
+            args.add(decoded.getId());
+        }
+        inner.append(" ORDER BY \"rank\" DESC, e.\"ID\" LIMIT ?");
+        args.add(pageSize + 1);
+
         String sql = """
-                SELECT u.\"ID\", u.\"name\", u.\"email\", u.\"phoneNumber\"
-                FROM \"Registration\" r
-                JOIN \"User\" u ON r.\"member\" = u.\"ID\"
-                WHERE r.\"event\" = ?
-                """;
-        return jdbcTemplate.query(sql, (rs, rowNum) -> new UserDTO(
+                SELECT page.*,
+                ts_headline('simple', COALESCE(page.\"title\", ''), page.query,
+                    'StartSel=<mark>, StopSel=</mark>, HighlightAll=true') AS \"titleHighlight\",
+                ts_headline('simple', COALESCE(page.\"description\", ''), page.query,
+                    'StartSel=<mark>, StopSel=</mark>, MaxWords=35, MinWords=15, MaxFragments=2') AS \"descriptionHighlight\"
+                FROM (%s) page
+                ORDER BY page.\"rank\" DESC, page.\"ID\"
+                """.formatted(inner);
+
+        List<EventSearchResultDTO> rows = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new EventSearchResultDTO(mapEvent(rs, rowNum), rs.getFloat("rank"),
+                        rs.getString("titleHighlight"), rs.getString("descriptionHighlight")),
+                args.toArray());
+        if (rows.size() <= pageSize) {
+            return new EventPage(rows, null);
+        }
+        EventSearchResultDTO last = rows.get(pageSize - 1);
+        return new EventPage(new ArrayList<>(rows.subList(0, pageSize)),
+                new EventCursor(SEARCH_SORT, Float.toString(last.getRank()), last.getId()).encode());
+    }
+
+    /**
+     * Слова запроса (буквы и цифры) в виде {@code w1:* & w2:*}; всё прочее
+     * отбрасывается, поэтому синтаксис tsquery из пользовательского ввода
+     * не проходит.
+     *
+     * @return tsquery или {@code null}, если слов нет
+     */
+    static String toPrefixTsQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = SEARCH_WORD.matcher(text.toLowerCase());
+        while (matcher.find() && terms.size() < MAX_SEARCH_TERMS) {
+            terms.add(matcher.group() + ":*");
+        }
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+
+    /**
+     * Поддерживаемые сортировки каталога; {@code key} совпадает с выражением
+     * индекса из {@code DatabaseInitializer}, {@code "ID"} — тай-брейкер.
+     */
+    private enum EventSort {
+        START_DATE("startDate", "\"startDate\"", "CAST(? AS TIMESTAMP)", false),
+        START_DATE_DESC("-startDate", "\"startDate\"", "CAST(? AS TIMESTAMP)", true),
+        PRICE("price", "COALESCE(\"price\", 0)", "CAST(? AS DOUBLE PRECISION)", false),
+        PRICE_DESC("-price", "COALESCE(\"price\", 0)", "CAST(? AS DOUBLE PRECISION)", true),
+        NEWEST("newest", null, null, true);
+
+        final String param;
+        final String key;
+        final String cursorCast;
+        final boolean descending;
+
+        EventSort(String param, String key, String cursorCast, boolean descending) {
+            this.param = param;
+            this.key = key;
+            this.cursorCast = cursorCast;
+            this.descending = descending;
+        }
+
+        String cursorValue(EventDTO event) {
+            return switch (this) {
+                case START_DATE, START_DATE_DESC -> event.getStartDate();
+                case PRICE, PRICE_DESC -> Double.toString(event.getPrice());
+                case NEWEST -> "";
+            };
+        }
+
+        static EventSort fromParam(String param) {
+            if (param == null || param.isBlank()) {
+                return START_DATE;
+            }
+            for (EventSort sort : values()) {
+                if (sort.param.equals(param.trim())) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort order.");
+        }
+    }
+
+    /** Режим фильтра по тегам: оператор над {@code "tags" text[]}. */
+    private enum TagMatch {
+        ALL("all", "@>"),
+        ANY("any", "&&");
+
+        final String param;
+        final String operator;
+
+        TagMatch(String param, String operator) {
+            this.param = param;
+            this.operator = operator;
+        }
+
+        static TagMatch fromParam(String param) {
+            if (param == null || param.isBlank()) {
+                return ALL;
+            }
+            for (TagMatch match : values()) {
+                if (match.param.equals(param.trim())) {
+                    return match;
+                }
+            }
+            throw new IllegalArgumentException("Unknown tag match mode.");
+        }
+    }
+
+    /**
+     * Дата ({@code 2024-05-01}) или дата-время ({@code 2024-05-01T18:00}).
+     * Для верхней границы дата означает «включительно весь день».
+     */
+    private static LocalDateTime parseDateTime(String value, boolean upperBound) {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() == 10) {
+                LocalDate date = LocalDate.parse(trimmed);
+                return upperBound ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid date.");
+        }
+    }
+
+    /**
+     * Общий маппер строки {@code "Event"}: {@code images} и {@code tags} —
+     * массивы {@code text[]}, драйвер отдаёт их готовым {@code String[]},
+     * который оборачивается в список без копирования.
+     */
+    private static EventDTO mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        return new EventDTO(
+                rs.getInt("ID"),
+                rs.getString("title"),
+                rs.getString("description"),
+                rs.getString("startDate"),
+                rs.getString("endDate"),
+                rs.getString("address"),
+                rs.getDouble("latitude"),
+                rs.getDouble("longitude"),
+                rs.getInt("organizerId"),
+                rs.getString("organizerName"),
+                rs.getDouble("price"),
+                rs.getInt("maxParticipants"),
+                rs.getInt("registeredParticipants"),
+                rs.getBoolean("hasQuiz"),
+                toList(rs.getArray("images")),
+                rs.getString("eventCategory"),
+                rs.getString("status"),
+                toList(rs.getArray("tags")));
+    }
+
+    private static FeedbackDTO mapFeedback(ResultSet rs, int rowNum) throws SQLException {
+        return new FeedbackDTO(
+                rs.getInt("ID"),
+                rs.getInt("event"),
+                rs.getInt("user"),
+                rs.getString("name"),
+                rs.getInt("rating"),
+                rs.getString("comment"),
+                rs.getString("createdAt"));
+    }
+
+    private static UserDTO mapUser(ResultSet rs, int rowNum) throws SQLException {
+        return new UserDTO(
                 rs.getInt("ID"),
                 rs.getString("name"),
                 rs.getString("email"),
-                rs.getString("phoneNumber")), eventId);
+                rs.getString("phoneNumber"));
     }
 
-    public String leaveFeedback(String token, int eventId, int rating, String comment) {
-        String email = userService.extractEmail(token);
-        User user = userService.getUserByEmail(email);
-        if (user == null) {
-            return "User not found.";
+    private static List<String> toList(Array array) throws SQLException {
+        if (array == null) {
+            return List.of();
         }
+        try {
+            return Arrays.asList((String[]) array.getArray());
+        } finally {
+            array.free();
+        }
+    }
 
+    /** Теги для записи: без пробелов по краям, пустых и повторов. */
+    private static String[] toTagArray(List<String> tags) {
+        if (tags == null) {
+            return new String[0];
+        }
+        return tags.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private static String[] toImageArray(List<String> images) {
+        if (images == null) {
+            return new String[0];
+        }
+        return images.stream().filter(image -> image != null && !image.isBlank()).toArray(String[]::new);
+    }
+
+    /**
+     * Регистрация одним вызовом {@code register_for_event}: функция держит
+     * блокировку строки события, поэтому проверка мест и вставка атомарны и
+     * событие не переполняется при конкурентных регистрациях; дубликаты
+     * отсекает уникальный индекс {@code (event, member)}. На заполненное
+     * событие пользователь встаёт в очередь ожидания.
+     */
+    public RegistrationOutcome registerForEvent(int userId, int eventId) {
+        String outcome = jdbcTemplate.queryForObject("SELECT register_for_event(?, ?)", String.class, eventId, userId);
+        RegistrationOutcome result = RegistrationOutcome.valueOf(outcome);
+        if (result == RegistrationOutcome.REGISTERED) {
+            eventCache.invalidate(eventId);
+        }
+        return result;
+    }
+
+    public List<UserDTO> getRegisteredUsers(int eventId) {
+        return jdbcTemplate.query(REGISTERED_USERS_SQL, EventService::mapUser, eventId);
+    }
+
+    /** Потоковый вариант {@link #getRegisteredUsers(int)}. */
+    @Transactional(readOnly = true)
+    public void streamRegisteredUsers(int eventId, OutputStream out) throws IOException {
+        streamJsonArray(out, REGISTERED_USERS_SQL, EventService::mapUser, eventId);
+    }
+
+    public String leaveFeedback(int userId, int eventId, int rating, String comment) {
         String checkRegistrationSql = """
                 SELECT COUNT(*) FROM \"Registration\" WHERE \"event\" = ? AND \"member\" = ?
                 """;
-        Integer count = jdbcTemplate.queryForObject(checkRegistrationSql, Integer.class, eventId, user.getId());
+        Integer count = jdbcTemplate.queryForObject(checkRegistrationSql, Integer.class, eventId, userId);
         if (count == null || count == 0) {
             return "You did not attend this event.";
         }
@@ -296,208 +725,208 @@ public class EventService {
                 INSERT INTO \"Feedback\" (\"user\", \"event\", \"rating\", \"comment\")
                 VALUES (?, ?, ?, ?)
                 """;
-        jdbcTemplate.update(insertFeedbackSql, user.getId(), eventId, rating, comment);
+        jdbcTemplate.update(insertFeedbackSql, userId, eventId, rating, comment);
         return "Feedback submitted successfully.";
     }
 
     public List<EventDTO> getParticipatedEvents(int id) {
-        String sql = """
-                SELECT e.\"ID\", e.\"title\", e.\"description\", e.\"startDate\", e.\"endDate\", e.\"address\", e.\"latitude\", e.\"longitude\",
-                e.\"organizerId\", e.\"organizerName\", e.\"price\", e.\"maxParticipants\", e.\"registeredParticipants\", e.\"hasQuiz\",
-                e.\"images\", e.\"eventCategory\", e.\"status\", e.\"tags\"
-                FROM \"Registration\" r
-                JOIN \"Event\" e ON r.\"event\" = e.\"ID\"
-                WHERE r.\"member\" = ?
-                """;
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            String imagesString = rs.getString("images");
-            List<String> imagesList = imagesString != null && !imagesString.isEmpty() ? List.of(imagesString.split(","))
-                    : new ArrayList<>();
-
-            String tagsString = rs.getString("tags");
-            List<String> tagsList = tagsString != null && !tagsString.isEmpty() ? List.of(tagsString.split(","))
-                    : new ArrayList<>();
-
-            return new EventDTO(
-                    rs.getInt("ID"),
-                    rs.getString("title"),
-                    rs.getString("description"),
-                    rs.getString("startDate"),
-                    rs.getString("endDate"),
-                    rs.getString("address"),
-                    rs.getDouble("latitude"),
-                    rs.getDouble("longitude"),
-                    rs.getInt("organizerId"),
-                    rs.getString("organizerName"),
-                    rs.getDouble("price"),
-                    rs.getInt("maxParticipants"),
-                    rs.getInt("registeredParticipants"),
-                    rs.getBoolean("hasQuiz"),
-                    imagesList,
-                    rs.getString("eventCategory"),
-                    rs.getString("status"),
-                    tagsList);
-        }, id);
-    }
-
-    public List<String> getFeedbacks(String tokenWithoutPrefix, int eventId) {
-        String sql = """
-                SELECT f.\"rating\", f.\"comment\", u.\"name\", u.\"ID\" as userId
-                FROM \"Feedback\" f
-                JOIN \"User\" u ON f.\"user\" = u.\"ID\"
-                WHERE f.\"event\" = ?
-                """;
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            int userId = rs.getInt("userId");
-            String userName = rs.getString("name");
-            int rating = rs.getInt("rating");
-            String comment = rs.getString("comment");
-            return userId + ":" + userName + ":" + rating + ":" + comment;
-        }, eventId);
+        return jdbcTemplate.query(PARTICIPATED_EVENTS_SQL, EventService::mapEvent, id);
     }
 
-    public String deleteFeedback(String tokenWithoutPrefix, int feedbackId) {
-        String sql = "DELETE FROM \"Feedback\" WHERE \"ID\" = ?";
-        jdbcTemplate.update(sql, feedbackId);
-        return "Feedback deleted.";
+    /** Потоковый вариант {@link #getParticipatedEvents(int)}. */
+    @Transactional(readOnly = true)
+    public void streamParticipatedEvents(int id, OutputStream out) throws IOException {
+        streamJsonArray(out, PARTICIPATED_EVENTS_SQL, EventService::mapEvent, id);
     }
 
-    public String sendNewsletter(String tokenWithoutPrefix, int id, String message) {
-        String email = userService.extractEmail(tokenWithoutPrefix);
-        User user = userService.getUserByEmail(email);
-        if (user == null) {
-            return "User not authorized.";
+    /**
+     * Отзывы события от новых к старым с keyset-пагинацией по {@code "ID"}
+     * (индексы {@code (event, ID)} и {@code (event, rating, ID)}), поэтому
+     * любая страница читается за постоянное время.
+     *
+     * @param rating только отзывы с этой оценкой, {@code null} — все
+     * @throws IllegalArgumentException при неверной оценке или курсоре
+     */
+    public FeedbackPage getFeedbacks(int eventId, Integer rating, Integer limit, String cursor) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new IllegalArgumentException("rating must be between 1 and 5.");
         }
-
-        String sql = """
-                SELECT \"email\" FROM \"User\"
-                WHERE \"ID\" IN (SELECT \"member\" FROM \"Registration\" WHERE \"event\" = ?)
-                """;
-        List<String> emails = jdbcTemplate.queryForList(sql, String.class, id);
-        if (emails.isEmpty()) {
-            return "No registered users for this event.";
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        StringBuilder sql = new StringBuilder(FEEDBACK_SELECT).append(" WHERE f.\"event\" = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(eventId);
+        if (rating != null) {
+            sql.append(" AND f.\"rating\" = ?");
+            args.add(rating);
         }
-
-        int successCount = 0;
-        for (String recipient : emails) {
-            sendEmail(recipient, message);
-            successCount++;
+        if (cursor != null && !cursor.isBlank()) {
+            EventCursor decoded = EventCursor.decode(cursor);
+            if (!FEEDBACK_SORT.equals(decoded.getSort())) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            sql.append(" AND f.\"ID\" < ?");
+            args.add(decoded.getId());
         }
+        sql.append(" ORDER BY f.\"ID\" DESC LIMIT ?");
+        args.add(pageSize + 1);
 
-        return successCount > 0 ? "Newsletter sent." : "Failed to send newsletter.";
+        List<FeedbackDTO> rows = jdbcTemplate.query(sql.toString(), EventService::mapFeedback, args.toArray());
+        if (rows.size() <= pageSize) {
+            return new FeedbackPage(rows, null);
+        }
+        List<FeedbackDTO> page = new ArrayList<>(rows.subList(0, pageSize));
+        return new FeedbackPage(page, new EventCursor(FEEDBACK_SORT, "", page.get(pageSize - 1).getId()).encode());
     }
 
-    private void sendEmail(String to, String text) {
-        try {
-            MimeMessage message = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom("no-reply@event-portal.local", "Event Portal");
-            helper.setTo(to);
-            helper.setSubject("Event Newsletter");
-            helper.setText(text, true);
+    /**
+     * @return отзыв пользователя о событии или {@code null}
+     */
+    public FeedbackDTO getUserFeedback(int userId, int eventId) {
+        String sql = FEEDBACK_SELECT + " WHERE f.\"event\" = ? AND f.\"user\" = ? ORDER BY f.\"ID\" DESC LIMIT 1";
+        List<FeedbackDTO> rows = jdbcTemplate.query(sql, EventService::mapFeedback, eventId, userId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
 
-            javaMailSender.send(message);
-            System.out.println("Email sent successfully to " + to);
-        } catch (MessagingException | UnsupportedEncodingException e) {
-            System.err.println("Failed to send email to " + to + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+    public String deleteFeedback(int feedbackId) {
+        String sql = "DELETE FROM \"Feedback\" WHERE \"ID\" = ?";
+        jdbcTemplate.update(sql, feedbackId);
+        return "Feedback deleted.";
     }
 
-    public boolean cancelRegistration(String tokenWithoutPrefix, int eventId) {
-        String email = userService.extractEmail(tokenWithoutPrefix);
-        User user = userService.getUserByEmail(email);
-        if (user == null) {
+    /**
+     * Отмена регистрации (или выход из очереди ожидания). Освободившееся
+     * место в той же транзакции получает первый в очереди, ему уходит письмо.
+     *
+     * @return {@code false}, если пользователь не был ни зарегистрирован, ни в очереди
+     */
+    public boolean cancelRegistration(int userId, int eventId) {
+        Integer promoted = jdbcTemplate.queryForObject("SELECT cancel_registration(?, ?)", Integer.class,
+                eventId, userId);
+        if (promoted == null || promoted < 0) {
             return false;
         }
-
-        String sql = "DELETE FROM \"Registration\" WHERE \"event\" = ? AND \"member\" = ?";
-        jdbcTemplate.update(sql, eventId, user.getId());
+        eventCache.invalidate(eventId);
+        if (promoted > 0) {
+            waitlistNotifier.notifyPromoted(promoted, eventId);
+        }
         return true;
     }
 
-    public boolean checkRegistration(String tokenWithoutPrefix, int eventId) {
-        String email = userService.extractEmail(tokenWithoutPrefix);
-        User user = userService.getUserByEmail(email);
-        if (user == null) {
-            return false;
-        }
+    /**
+     * @return позиция в очереди ожидания, начиная с 1, или 0, если пользователь в ней не стоит
+     */
+    public int getWaitlistPosition(int userId, int eventId) {
+        String sql = """
+                SELECT COUNT(*) FROM \"Waitlist\" w
+                WHERE w.\"event\" = ?
+                AND w.\"ID\" <= (SELECT \"ID\" FROM \"Waitlist\" WHERE \"event\" = ? AND \"member\" = ?)
+                """;
+        Integer position = jdbcTemplate.queryForObject(sql, Integer.class, eventId, eventId, userId);
+        return position != null ? position : 0;
+    }
 
+    public boolean checkRegistration(int userId, int eventId) {
         String sql = """
                 SELECT COUNT(*) FROM \"Registration\" WHERE \"event\" = ? AND \"member\" = ?
                 """;
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, eventId, user.getId());
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, eventId, userId);
         return count != null && count > 0;
     }
 
-    public List<EventDTO> getCreatedEvents(String token) {
-        String email = userService.extractEmail(token);
-        String sql = """
-                SELECT \"ID\", \"title\", \"description\", \"startDate\", \"endDate\", \"address\", \"latitude\", \"longitude\",
-                \"organizerId\", \"organizerName\", \"price\", \"maxParticipants\", \"registeredParticipants\", \"hasQuiz\",
-                \"images\", \"eventCategory\", \"status\", \"tags\"
-                FROM \"Event\"
-                WHERE \"organizerId\" = (SELECT \"ID\" FROM \"User\" WHERE LOWER(\"email\") = LOWER(?))
-                """;
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            String imagesString = rs.getString("images");
-            List<String> imagesList = imagesString != null && !imagesString.isEmpty() ? List.of(imagesString.split(","))
-                    : new ArrayList<>();
-
-            String tagsString = rs.getString("tags");
-            List<String> tagsList = tagsString != null && !tagsString.isEmpty() ? List.of(tagsString.split(","))
-                    : new ArrayList<>();
-
-            return new EventDTO(
-                    rs.getInt("ID"),
-                    rs.getString("title"),
-                    rs.getString("description"),
-                    rs.getString("startDate"),
-                    rs.getString("endDate"),
-                    rs.getString("address"),
-                    rs.getDouble("latitude"),
-                    rs.getDouble("longitude"),
-                    rs.getInt("organizerId"),
-                    rs.getString("organizerName"),
-                    rs.getDouble("price"),
-                    rs.getInt("maxParticipants"),
-                    rs.getInt("registeredParticipants"),
-                    rs.getBoolean("hasQuiz"),
-                    imagesList,
-                    rs.getString("eventCategory"),
-                    rs.getString("status"),
-                    tagsList);
-        }, email);
-    }
-
-    public double getMiddleScore(String tokenWithoutPrefix, int eventId) {
-        String sql = "SELECT AVG(\"rating\") FROM \"Feedback\" WHERE \"event\" = ?";
-        Double v = jdbcTemplate.queryForObject(sql, Double.class, eventId);
-        return v != null ? v : 0.0;
-    }
-
-    public double getAverageScoreForMyAll(String tokenWithoutPrefix) {
-        String email = userService.extractEmail(tokenWithoutPrefix);
+    public List<EventDTO> getCreatedEvents(int organizerId) {
+        return jdbcTemplate.query(CREATED_EVENTS_SQL, EventService::mapEvent, organizerId);
+    }
+
+    /** Потоковый вариант {@link #getCreatedEvents(int)}. */
+    @Transactional(readOnly = true)
+    public void streamCreatedEvents(int organizerId, OutputStream out) throws IOException {
+        streamJsonArray(out, CREATED_EVENTS_SQL, EventService::mapEvent, organizerId);
+    }
+
+    /**
+     * Пишет результат запроса JSON-массивом прямо в {@code out}: строки читаются
+     * курсором по {@code fetchSize} (в Postgres курсор работает только внутри
+     * транзакции, отсюда {@code @Transactional} у вызывающих методов) и сразу
+     * сериализуются, поэтому память не зависит от размера выборки.
+     */
+    private <T> void streamJsonArray(OutputStream out, String sql, RowMapper<T> mapper, Object... args)
+            throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            int[] rowNum = { 0 };
+            try {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(streamFetchSize);
+                    for (int i = 0; i < args.length; i++) {
+                        statement.setObject(i + 1, args[i]);
+                    }
+                    return statement;
+                }, (RowCallbackHandler) rs -> {
+                    try {
+                        generator.writeObject(mapper.mapRow(rs, rowNum[0]++));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    public double getMiddleScore(int eventId) {
+        return getRatingSummary(eventId).getAverage();
+    }
+
+    /**
+     * Оценки события из {@code "OrganizerStats"}: сумму, число и гистограмму
+     * ведёт триггер на {@code "Feedback"}, чтение — одна строка по ключу.
+     */
+    public RatingSummaryDTO getRatingSummary(int eventId) {
         String sql = """
-                SELECT AVG(f.\"rating\")
-                FROM \"Feedback\" f
-                JOIN \"Event\" e ON f.\"event\" = e.\"ID\"
-                WHERE e.\"organizerId\" = (SELECT \"ID\" FROM \"User\" WHERE LOWER(\"email\") = LOWER(?))
+                SELECT \"ratingSum\", \"ratingCount\", \"ratingHistogram\"
+                FROM \"OrganizerStats\"
+                WHERE \"event\" = ?
                 """;
-        Double result = jdbcTemplate.queryForObject(sql, Double.class, email);
-        return result != null ? result : 0.0;
+        List<RatingSummaryDTO> rows = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            int count = rs.getInt("ratingCount");
+            double average = count > 0 ? (double) rs.getLong("ratingSum") / count : 0.0;
+            Array histogram = rs.getArray("ratingHistogram");
+            try {
+                return new RatingSummaryDTO(eventId, average, count, Arrays.asList((Integer[]) histogram.getArray()));
+            } finally {
+                histogram.free();
+            }
+        }, eventId);
+        return rows.isEmpty() ? new RatingSummaryDTO(eventId, 0.0, 0, List.of(0, 0, 0, 0, 0)) : rows.get(0);
     }
 
-    public int getUserCountForMyEvents(String tokenWithoutPrefix) {
-        String email = userService.extractEmail(tokenWithoutPrefix);
+    /**
+     * Средняя оценка по всем событиям организатора из {@code "OrganizerDashboard"}
+     * (сумму и число оценок ведут триггеры на {@code "Feedback"}).
+     */
+    public double getAverageScoreForMyAll(int organizerId) {
         String sql = """
-                SELECT COUNT(DISTINCT r.\"member\")
-                FROM \"Registration\" r
-                JOIN \"Event\" e ON r.\"event\" = e.\"ID\"
-                WHERE e.\"organizerId\" = (SELECT \"ID\" FROM \"User\" WHERE LOWER(\"email\") = LOWER(?))
+                SELECT \"ratingSum\"::FLOAT / NULLIF(\"ratingCount\", 0)
+                FROM \"OrganizerDashboard\"
+                WHERE \"organizer\" = ?
                 """;
-        Integer v = jdbcTemplate.queryForObject(sql, Integer.class, email);
-        return v != null ? v : 0;
+        List<Double> result = jdbcTemplate.queryForList(sql, Double.class, organizerId);
+        return result.isEmpty() || result.get(0) == null ? 0.0 : result.get(0);
+    }
+
+    /**
+     * Число уникальных участников событий организатора из
+     * {@code "OrganizerDashboard"}; для событий в режиме flash sale значение
+     * догоняет фоновый пересчёт.
+     */
+    public int getUserCountForMyEvents(int organizerId) {
+        String sql = "SELECT \"participants\" FROM \"OrganizerDashboard\" WHERE \"organizer\" = ?";
+        List<Integer> result = jdbcTemplate.queryForList(sql, Integer.class, organizerId);
+        return result.isEmpty() ? 0 : result.get(0);
     }
 }
@@ -0,0 +1,73 @@
+package back.event.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Режим flash sale для событий с ажиотажным спросом.
+ *
+ * <p>
+ * Свободные места разбиваются на {@code shards} строк
+ * {@code "EventSeatShard"}; {@code register_for_event} занимает место в
+ * случайном незаблокированном шарде ({@code SKIP LOCKED}) и не трогает ни
+ * строку {@code "Event"}, ни {@code "OrganizerStats"}. Агрегаты раз в
+ * {@code event.flash-sale.reconcile-interval} сводит
+ * {@link #reconcile()}, при выключении режима — окончательно.
+ */
+@Service
+public class FlashSaleService {
+    public static final int MAX_SHARDS = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int defaultShards;
+
+    public FlashSaleService(JdbcTemplate jdbcTemplate,
+            @Value("${event.flash-sale.default-shards:32}") int defaultShards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultShards = Math.max(1, Math.min(defaultShards, MAX_SHARDS));
+    }
+
+    public String enable(int userId, String role, int eventId, Integer shards) {
+        if (!canManage(userId, role, eventId)) {
+            return "Only the event organizer or admins can manage flash sales.";
+        }
+        int shardCount = shards == null ? defaultShards : shards;
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            return "shards must be between 1 and " + MAX_SHARDS + ".";
+        }
+        String result = jdbcTemplate.queryForObject("SELECT enable_flash_sale(?, ?)", String.class,
+                eventId, shardCount);
+        return switch (result) {
+            case "ENABLED" -> "Flash sale enabled.";
+            case "NO_SEAT_LIMIT" -> "Flash sale requires maxParticipants.";
+            default -> "Event not found.";
+        };
+    }
+
+    public String disable(int userId, String role, int eventId) {
+        if (!canManage(userId, role, eventId)) {
+            return "Only the event organizer or admins can manage flash sales.";
+        }
+        String result = jdbcTemplate.queryForObject("SELECT disable_flash_sale(?)", String.class, eventId);
+        return "DISABLED".equals(result) ? "Flash sale disabled." : "Event not found.";
+    }
+
+    @Scheduled(initialDelayString = "${event.flash-sale.reconcile-interval:1000}",
+            fixedDelayString = "${event.flash-sale.reconcile-interval:1000}")
+    public void reconcile() {
+        jdbcTemplate.queryForObject("SELECT reconcile_flash_sales(NULL)", Integer.class);
+    }
+
+    private boolean canManage(int userId, String role, int eventId) {
+        if ("admin".equals(role)) {
+            return true;
+        }
+        String sql = """
+                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ? AND \"organizerId\" = ?
+                """;
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, eventId, userId);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,87 @@
+package back.event.service;
+
+import back.event.dto.NewsletterProgressDTO;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Постановка рассылки в outbox и её прогресс. Запрос только записывает
+ * задание и строки получателей одной командой; письма отправляет
+ * {@link NewsletterWorker}.
+ */
+@Service
+public class NewsletterService {
+    private final JdbcTemplate jdbcTemplate;
+
+    public NewsletterService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return id задания; {@code null}, если у события нет участников
+     */
+    public Long enqueue(int userId, int eventId, String message) {
+        String sql = """
+                WITH recipients AS (
+                    SELECT DISTINCT u.\"email\"
+                    FROM \"Registration\" r
+                    JOIN \"User\" u ON u.\"ID\" = r.\"member\"
+                    WHERE r.\"event\" = ?
+                ), job AS (
+                    INSERT INTO \"NewsletterJob\" (\"event\", \"sender\", \"message\")
+                    SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM recipients)
+                    RETURNING \"ID\"
+                ), deliveries AS (
+                    INSERT INTO \"NewsletterDelivery\" (\"job\", \"email\")
+                    SELECT job.\"ID\", recipients.\"email\" FROM job, recipients
+                    RETURNING 1
+                )
+                SELECT job.\"ID\" FROM job
+                """;
+        try {
+            return jdbcTemplate.queryForObject(sql, Long.class, eventId, eventId, userId, message);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return прогресс или {@code null}, если задания нет у этого события
+     */
+    public NewsletterProgressDTO getProgress(int eventId, long jobId) {
+        String sql = """
+                SELECT j.\"ID\", j.\"event\",
+                COUNT(d.\"ID\") AS total,
+                COUNT(d.\"ID\") FILTER (WHERE d.\"status\" = 'sent') AS sent,
+                COUNT(d.\"ID\") FILTER (WHERE d.\"status\" = 'failed') AS failed
+                FROM \"NewsletterJob\" j
+                LEFT JOIN \"NewsletterDelivery\" d ON d.\"job\" = j.\"ID\"
+                WHERE j.\"ID\" = ? AND j.\"event\" = ?
+                GROUP BY j.\"ID\", j.\"event\"
+                """;
+        Map<String, Object> row;
+        try {
+            row = jdbcTemplate.queryForMap(sql, jobId, eventId);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+        int total = ((Number) row.get("total")).intValue();
+        int sent = ((Number) row.get("sent")).intValue();
+        int failed = ((Number) row.get("failed")).intValue();
+        return new NewsletterProgressDTO(jobId, eventId, total, sent, failed, total - sent - failed);
+    }
+
+    public boolean canSend(int userId, String role, int eventId) {
+        if ("admin".equals(role)) {
+            return true;
+        }
+        String sql = """
+                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ? AND \"organizerId\" = ?
+                """;
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, eventId, userId);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,276 @@
+package back.event.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Доставка рассылок из outbox {@code "NewsletterDelivery"}.
+ *
+ * <ul>
+ * <li>каждые {@code newsletter.worker.poll-interval} до {@code threads}
+ * потоков забирают по {@code batch-size} строк ({@code FOR UPDATE SKIP
+ * LOCKED}, поэтому несколько инстансов event-service не мешают друг другу);
+ * забранная строка арендуется на {@code lease} — после падения инстанса её
+ * заберут снова;</li>
+ * <li>пачка уходит одним SMTP-соединением ({@link JavaMailSender#send(MimeMessage...)});</li>
+ * <li>общий темп ограничен {@code rate-per-second} писем;</li>
+ * <li>неудачная доставка повторяется с экспоненциальной задержкой, после
+ * {@code max-attempts} попыток получает статус {@code failed} с текстом ошибки.</li>
+ * </ul>
+ *
+ * <p>
+ * Пачки выполняются на virtual threads при {@code spring.threads.virtual.enabled},
+ * иначе на пуле из {@code threads} daemon-потоков; пул закрывается вместе с контекстом.
+ */
+@Service
+public class NewsletterWorker {
+    private static final Logger logger = LoggerFactory.getLogger(NewsletterWorker.class);
+    private static final Duration BASE_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    record Delivery(long id, String email, String message, int attempts) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSender javaMailSender;
+    private final boolean enabled;
+    private final int threads;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseSeconds;
+    private final long nanosPerMessage;
+    private final AtomicLong nextPermitNanos = new AtomicLong(System.nanoTime());
+    private final ExecutorService executor;
+
+    public NewsletterWorker(JdbcTemplate jdbcTemplate, JavaMailSender javaMailSender,
+            @Value("${newsletter.worker.enabled:true}") boolean enabled,
+            @Value("${newsletter.worker.threads:4}") int threads,
+            @Value("${newsletter.worker.batch-size:50}") int batchSize,
+            @Value("${newsletter.worker.rate-per-second:50}") int ratePerSecond,
+            @Value("${newsletter.worker.max-attempts:5}") int maxAttempts,
+            @Value("${newsletter.worker.lease:5m}") Duration lease,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.javaMailSender = javaMailSender;
+        this.enabled = enabled;
+        this.threads = Math.max(threads, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.leaseSeconds = Math.max(lease.toSeconds(), 1);
+        this.nanosPerMessage = ratePerSecond > 0 ? 1_000_000_000L / ratePerSecond : 0;
+        this.executor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(this.threads, daemonThreads());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            logger.warn("Newsletter batches did not finish in {}, interrupting", SHUTDOWN_TIMEOUT);
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "newsletter-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Scheduled(initialDelayString = "${newsletter.worker.poll-interval:1000}",
+            fixedDelayString = "${newsletter.worker.poll-interval:1000}")
+    public void drain() throws InterruptedException {
+        if (!enabled || executor.isShutdown()) {
+            return;
+        }
+        boolean more = true;
+        while (more) {
+            List<Future<Integer>> batches = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                batches.add(executor.submit(this::processBatch));
+            }
+            more = false;
+            for (Future<Integer> batch : batches) {
+                try {
+                    more |= batch.get() == batchSize;
+                } catch (ExecutionException e) {
+                    logger.error("Newsletter batch failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return сколько строк было забрано
+     */
+    int processBatch() {
+        List<Delivery> deliveries = claim();
+        if (deliveries.isEmpty()) {
+            return 0;
+        }
+        awaitPermits(deliveries.size());
+        Map<Long, String> errors = send(deliveries);
+        record(deliveries, errors);
+        return deliveries.size();
+    }
+
+    private List<Delivery> claim() {
+        String sql = """
+                WITH claimed AS (
+                    UPDATE \"NewsletterDelivery\" d
+                    SET \"status\" = 'sending', \"attempts\" = d.\"attempts\" + 1,
+                    \"nextAttemptAt\" = CURRENT_TIMESTAMP + make_interval(secs => ?)
+                    WHERE d.\"ID\" IN (
+                        SELECT \"ID\" FROM \"NewsletterDelivery\"
+                        WHERE \"status\" IN ('pending', 'sending') AND \"nextAttemptAt\" <= CURRENT_TIMESTAMP
+                        ORDER BY \"nextAttemptAt\", \"ID\"
+                        LIMIT ?
+                        FOR UPDATE SKIP LOCKED
+                    )
+                    RETURNING d.\"ID\", d.\"job\", d.\"email\", d.\"attempts\"
+                )
+                SELECT c.\"ID\", c.\"email\", c.\"attempts\", j.\"message\"
+                FROM claimed c
+                JOIN \"NewsletterJob\" j ON j.\"ID\" = c.\"job\"
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Delivery(
+                rs.getLong("ID"),
+                rs.getString("email"),
+                rs.getString("message"),
+                rs.getInt("attempts")), leaseSeconds, batchSize);
+    }
+
+    /**
+     * Отправляет пачку одним соединением.
+     *
+     * @return ошибки по id доставки; пустая карта — всё отправлено
+     */
+    Map<Long, String> send(List<Delivery> deliveries) {
+        Map<Long, String> errors = new HashMap<>();
+        Map<MimeMessage, Delivery> messages = new LinkedHashMap<>();
+        for (Delivery delivery : deliveries) {
+            try {
+                messages.put(toMessage(delivery), delivery);
+            } catch (MessagingException | UnsupportedEncodingException e) {
+                errors.put(delivery.id(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return errors;
+        }
+        try {
+            javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(delivery -> errors.put(delivery.id(), e.getMessage()));
+            }
+            e.getFailedMessages().forEach((message, cause) -> {
+                Delivery delivery = messages.get(message);
+                if (delivery != null) {
+                    errors.put(delivery.id(), cause.getMessage());
+                }
+            });
+        } catch (MailException e) {
+            messages.values().forEach(delivery -> errors.put(delivery.id(), e.getMessage()));
+        }
+        return errors;
+    }
+
+    private MimeMessage toMessage(Delivery delivery) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("no-reply@event-portal.local", "Event Portal");
+        helper.setTo(delivery.email());
+        helper.setSubject("Event Newsletter");
+        helper.setText(delivery.message(), true);
+        return message;
+    }
+
+    private void record(List<Delivery> deliveries, Map<Long, String> errors) {
+        List<Object[]> sent = new ArrayList<>();
+        List<Object[]> retry = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+        for (Delivery delivery : deliveries) {
+            String error = errors.get(delivery.id());
+            if (error == null) {
+                sent.add(new Object[] { delivery.id() });
+            } else if (delivery.attempts() >= maxAttempts) {
+                failed.add(new Object[] { error, delivery.id() });
+            } else {
+                long delay = BASE_RETRY_DELAY.toSeconds() << Math.min(delivery.attempts() - 1, 10);
+                retry.add(new Object[] { error, delay, delivery.id() });
+            }
+        }
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    UPDATE \"NewsletterDelivery\"
+                    SET \"status\" = 'sent', \"sentAt\" = CURRENT_TIMESTAMP, \"lastError\" = NULL
+                    WHERE \"ID\" = ?
+                    """, sent);
+        }
+        if (!retry.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    UPDATE \"NewsletterDelivery\"
+                    SET \"status\" = 'pending', \"lastError\" = ?,
+                    \"nextAttemptAt\" = CURRENT_TIMESTAMP + make_interval(secs => ?)
+                    WHERE \"ID\" = ?
+                    """, retry);
+        }
+        if (!failed.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    UPDATE \"NewsletterDelivery\"
+                    SET \"status\" = 'failed', \"lastError\" = ?
+                    WHERE \"ID\" = ?
+                    """, failed);
+        }
+    }
+
+    /** Резервирует слот под {@code messages} писем и ждёт его (общий для всех потоков темп). */
+    private void awaitPermits(int messages) {
+        if (nanosPerMessage == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long cost = nanosPerMessage * messages;
+        long previous = nextPermitNanos.getAndUpdate(next -> Math.max(next, now) + cost);
+        long waitNanos = Math.max(previous, now) - now;
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(waitNanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package back.event.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Фоновая сверка {@code "OrganizerDashboard"} с фактическими регистрациями и
+ * отзывами. Триггеры ведут сводку дельтами, сверка исправляет дрейф (события
+ * в режиме flash sale, ручные правки БД) раз в
+ * {@code event.dashboard.reconcile-interval}. Каждый организатор
+ * пересчитывается отдельной короткой транзакцией, чтобы не держать
+ * блокировку сводки дольше одного пересчёта.
+ */
+@Service
+public class OrganizerDashboardReconciler {
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrganizerDashboardReconciler(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(initialDelayString = "${event.dashboard.reconcile-interval:300000}",
+            fixedDelayString = "${event.dashboard.reconcile-interval:300000}")
+    public void reconcile() {
+        List<Integer> organizers = jdbcTemplate.queryForList("""
+                SELECT \"organizerId\" FROM \"Event\"
+                UNION
+                SELECT \"organizer\" FROM \"OrganizerDashboard\"
+                """, Integer.class);
+        for (Integer organizer : organizers) {
+            jdbcTemplate.queryForObject("SELECT reconcile_organizer_dashboard(?)", Integer.class, organizer);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package back.event.service;
+
+import back.event.dto.RegistrationImportReport;
+import back.event.dto.RegistrationImportRow;
+import back.event.model.enums.ImportRowStatus;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Массовая регистрация участников организатором из CSV.
+ *
+ * <p>
+ * Весь импорт — одна транзакция под блокировкой строки события (той же, что
+ * у {@code register_for_event}): строки загружаются во временную таблицу через
+ * {@code COPY FROM STDIN}, email'ы сопоставляются с пользователями одним
+ * JOIN'ом, а регистрации, очередь ожидания и отчёт по строкам получаются одним
+ * запросом. Построчные триггеры счётчиков на время импорта выключены
+ * ({@code event.bulk_registration}), счётчики сдвигает один вызов
+ * {@code apply_bulk_registrations}.
+ */
+@Service
+public class RegistrationImportService {
+    private static final String IMPORT_SQL = """
+            WITH params AS (
+                SELECT ?::INT AS event_id, ?::INT AS free_seats
+            ), staged AS (
+                SELECT s.\"row\", s.\"email\", u.\"ID\" AS member,
+                row_number() OVER (PARTITION BY u.\"ID\" ORDER BY s.\"row\") AS occurrence
+                FROM import_registration s
+                LEFT JOIN \"User\" u ON u.\"email\" = s.\"email\"
+            ), candidates AS (
+                SELECT st.\"row\", st.member, row_number() OVER (ORDER BY st.\"row\") AS seat
+                FROM staged st, params p
+                WHERE st.member IS NOT NULL AND st.occurrence = 1
+                AND NOT EXISTS (
+                    SELECT 1 FROM \"Registration\" r WHERE r.\"event\" = p.event_id AND r.\"member\" = st.member
+                )
+            ), registered AS (
+                INSERT INTO \"Registration\" (\"event\", \"member\")
+                SELECT p.event_id, c.member
+                FROM candidates c, params p
+                WHERE p.free_seats IS NULL OR c.seat <= p.free_seats
+                ORDER BY c.\"row\"
+                ON CONFLICT (\"event\", \"member\") DO NOTHING
+                RETURNING \"member\"
+            ), waitlisted AS (
+                INSERT INTO \"Waitlist\" (\"event\", \"member\")
+                SELECT p.event_id, c.member
+                FROM candidates c, params p
+                WHERE c.seat > p.free_seats
+                ORDER BY c.\"row\"
+                ON CONFLICT (\"event\", \"member\") DO NOTHING
+            ), promoted AS (
+                DELETE FROM \"Waitlist\" w
+                USING registered r, params p
+                WHERE w.\"event\" = p.event_id AND w.\"member\" = r.\"member\"
+            )
+            SELECT st.\"row\", st.\"email\", st.member,
+            CASE
+                WHEN st.member IS NULL THEN 'USER_NOT_FOUND'
+                WHEN st.occurrence > 1 THEN 'DUPLICATE_ROW'
+                WHEN r.\"member\" IS NOT NULL THEN 'REGISTERED'
+                WHEN c.\"row\" IS NULL OR p.free_seats IS NULL OR c.seat <= p.free_seats THEN 'ALREADY_REGISTERED'
+                ELSE 'WAITLISTED'
+            END AS status
+            FROM staged st
+            CROSS JOIN params p
+            LEFT JOIN candidates c ON c.\"row\" = st.\"row\"
+            LEFT JOIN registered r ON r.\"member\" = st.member AND st.occurrence = 1
+            ORDER BY st.\"row\"
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventCache eventCache;
+    private final int maxRows;
+
+    public RegistrationImportService(JdbcTemplate jdbcTemplate, EventCache eventCache,
+            @Value("${event.import.max-rows:20000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventCache = eventCache;
+        this.maxRows = Math.max(maxRows, 1);
+    }
+
+    public boolean canImport(int userId, String role, int eventId) {
+        if ("admin".equals(role)) {
+            return true;
+        }
+        String sql = """
+                SELECT COUNT(*) FROM \"Event\" WHERE \"ID\" = ? AND \"organizerId\" = ?
+                """;
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, eventId, userId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Регистрирует пользователей из CSV с колонкой {@code email}: сверх
+     * свободных мест — в очередь ожидания, повторные и уже
+     * зарегистрированные строки пропускаются.
+     *
+     * @return отчёт по строкам или {@code null}, если события нет
+     * @throws IllegalArgumentException если CSV некорректен или слишком велик
+     * @throws IllegalStateException если у события идёт flash sale
+     */
+    @Transactional
+    public RegistrationImportReport importCsv(int eventId, Reader csv) throws IOException {
+        List<StagedRow> staged = readRows(csv, maxRows);
+
+        List<Map<String, Object>> event = jdbcTemplate.queryForList("""
+                SELECT \"maxParticipants\", \"registeredParticipants\",
+                EXISTS (SELECT 1 FROM \"EventSeatShard\" s WHERE s.\"event\" = e.\"ID\") AS \"flashSale\",
+                EXISTS (SELECT 1 FROM \"Waitlist\" w WHERE w.\"event\" = e.\"ID\") AS \"hasWaiters\"
+                FROM \"Event\" e
+                WHERE e.\"ID\" = ?
+                FOR UPDATE
+                """, eventId);
+        if (event.isEmpty()) {
+            return null;
+        }
+        if (Boolean.TRUE.equals(event.get(0).get("flashSale"))) {
+            throw new IllegalStateException("Bulk import is unavailable during a flash sale.");
+        }
+        // Очередь FIFO: при непустой очереди ожидания импорт никого не ставит вперёд неё.
+        Integer freeSeats = Boolean.TRUE.equals(event.get(0).get("hasWaiters"))
+                ? Integer.valueOf(0)
+                : freeSeats((Number) event.get(0).get("maxParticipants"),
+                        (Number) event.get(0).get("registeredParticipants"));
+
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE import_registration (
+                    \"row\" INT NOT NULL,
+                    \"email\" TEXT NOT NULL
+                ) ON COMMIT DROP
+                """);
+        copyIn(staged);
+        jdbcTemplate.queryForObject("SELECT set_config('event.bulk_registration', 'on', true)", String.class);
+
+        List<Integer> members = new ArrayList<>();
+        List<RegistrationImportRow> rows = jdbcTemplate.query(IMPORT_SQL, (rs, rowNum) -> {
+            ImportRowStatus status = ImportRowStatus.valueOf(rs.getString("status"));
+            if (status == ImportRowStatus.REGISTERED) {
+                members.add(rs.getInt("member"));
+            }
+            return new RegistrationImportRow(rs.getInt("row"), rs.getString("email"), status);
+        }, eventId, freeSeats);
+
+        jdbcTemplate.queryForObject("SELECT set_config('event.bulk_registration', 'off', true)", String.class);
+        jdbcTemplate.queryForList("SELECT apply_bulk_registrations(?, ?::INT[])", eventId,
+                members.toArray(Integer[]::new));
+        if (!members.isEmpty()) {
+            eventCache.invalidate(eventId);
+        }
+        return new RegistrationImportReport(eventId, rows);
+    }
+
+    /** @return число свободных мест или {@code null}, если лимита нет */
+    private static Integer freeSeats(Number maxParticipants, Number registered) {
+        int max = maxParticipants == null ? 0 : maxParticipants.intValue();
+        if (max <= 0) {
+            return null;
+        }
+        return Math.max(max - (registered == null ? 0 : registered.intValue()), 0);
+    }
+
+    private void copyIn(List<StagedRow> staged) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(staged.size() * 32);
+        for (StagedRow row : staged) {
+            String line = row.row() + ",\"" + row.email().replace("\"", "\"\"") + "\"\n";
+            buffer.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+        }
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY import_registration (\"row\", \"email\") FROM STDIN WITH (FORMAT csv)",
+                        new ByteArrayInputStream(buffer.toByteArray()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Строки с email'ами из CSV (разделитель {@code ,} или {@code ;}, поля в
+     * кавычках по RFC 4180). Колонка ищется по заголовку {@code email}; если
+     * заголовка нет, а первая колонка похожа на email, берётся она. Пустые
+     * строки пропускаются, номер строки считается с заголовком.
+     */
+    static List<StagedRow> readRows(Reader csv, int maxRows) throws IOException {
+        List<String> record = nextRecord(csv);
+        if (record == null) {
+            throw new IllegalArgumentException("CSV is empty.");
+        }
+        record.set(0, record.get(0).replace("\uFEFF", ""));
+        int column = -1;
+        for (int i = 0; i < record.size(); i++) {
+            if ("email".equalsIgnoreCase(record.get(i).trim())) {
+                column = i;
+                break;
+            }
+        }
+        int line = 1;
+        List<StagedRow> rows = new ArrayList<>();
+        if (column < 0) {
+            if (!record.get(0).contains("@")) {
+                throw new IllegalArgumentException("CSV must have an email column.");
+            }
+            column = 0;
+            addRow(rows, record, column, line, maxRows);
+        }
+        while ((record = nextRecord(csv)) != null) {
+            addRow(rows, record, column, ++line, maxRows);
+        }
+        return rows;
+    }
+
+    private static void addRow(List<StagedRow> rows, List<String> record, int column, int line, int maxRows) {
+        String email = column < record.size() ? record.get(column).trim() : "";
+        if (email.isEmpty()) {
+            return;
+        }
+        if (rows.size() >= maxRows) {
+            throw new IllegalArgumentException("CSV has more than " + maxRows + " rows.");
+        }
+        rows.add(new StagedRow(line, email));
+    }
+
+    private static List<String> nextRecord(Reader in) throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field in CSV.");
+                }
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',' || c == ';') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    record StagedRow(int row, String email) {
+    }
+}
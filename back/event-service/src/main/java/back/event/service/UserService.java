@@ -1,79 +1,86 @@
 package back.event.service;
 
-import back.event.model.User;
-import back.event.model.enums.UserRole;
+import back.event.model.AuthenticatedUser;
 import back.event.util.JwtTokenUtil;
+import back.event.util.TokenClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    private static final int MAX_PRINCIPAL_CACHE_ENTRIES = 10_000;
+
+    private static final class CacheEntry {
+        final long expiresAt;
+        final AuthenticatedUser user;
+
+        CacheEntry(long expiresAt, AuthenticatedUser user) {
+            this.expiresAt = expiresAt;
+            this.user = user;
+        }
+    }
+
+    private final ConcurrentHashMap<String, CacheEntry> principalCache = new ConcurrentHashMap<>();
 
     private final JwtTokenUtil jwtTokenUtil;
     private final JdbcTemplate jdbcTemplate;
+    private final long principalCacheTtlMs;
 
-    public UserService(JwtTokenUtil jwtTokenUtil, JdbcTemplate jdbcTemplate) {
+    public UserService(JwtTokenUtil jwtTokenUtil, JdbcTemplate jdbcTemplate,
+            @Value("${auth.principal-cache.ttl:60s}") Duration principalCacheTtl) {
         this.jdbcTemplate = jdbcTemplate;
         this.jwtTokenUtil = jwtTokenUtil;
+        this.principalCacheTtlMs = principalCacheTtl.toMillis();
     }
 
-    public User getUserByEmail(String email) {
-        String sql = "SELECT * FROM \"User\" WHERE LOWER(\"email\") = LOWER(?)";
-        try {
-            return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new User(
-                    rs.getInt("ID"),
-                    rs.getString("name"),
-                    rs.getString("email"),
-                    rs.getString("phoneNumber"),
-                    rs.getString("password"),
-                    UserRole.fromString(rs.getString("role"))), email.trim().toLowerCase());
-        } catch (EmptyResultDataAccessException e) {
-            logger.error("User not found with email: {}", email);
+    /**
+     * Пользователь по JWT без префикса {@code Bearer }: одна проверка
+     * подписи и не больше одного запроса в БД — id и роль кэшируются по
+     * email на {@code auth.principal-cache.ttl}.
+     *
+     * @return пользователь или {@code null}, если токен невалиден или
+     *         пользователь не найден
+     */
+    public AuthenticatedUser authenticate(String token) {
+        TokenClaims claims = jwtTokenUtil.verify(token);
+        if (claims == null || claims.getSubject() == null) {
             return null;
         }
-    }
-
-    public boolean checkValidToken(String token) {
-        try {
-            boolean validToken = jwtTokenUtil.validateJwtToken(token);
-            System.out.println(">> Токен " + (validToken ? "валиден" : "не валиден") + ": "
-                    + token.substring(0, Math.min(token.length(), 15)) + "...");
-            return validToken;
-        } catch (Exception e) {
-            logger.error("Token validation failed: {}", e.getMessage());
-            System.out.println(">> Ошибка проверки токена: " + e.getMessage());
-            return false;
-        }
-    }
+        String email = claims.getSubject().trim().toLowerCase();
 
-    public String extractEmail(String token) {
-        if (!jwtTokenUtil.validateJwtToken(token)) {
-            System.out.println(">> Токен не валиден при извлечении email");
-            return null;
+        long now = System.currentTimeMillis();
+        CacheEntry entry = principalCache.get(email);
+        if (entry != null && now <= entry.expiresAt) {
+            return entry.user;
         }
 
+        String sql = "SELECT \"ID\", \"email\", \"role\" FROM \"User\" WHERE LOWER(\"email\") = ?";
+        AuthenticatedUser user;
         try {
-            String email = jwtTokenUtil.getEmailFromJwtToken(token);
-            System.out.println(">> Извлечен email: " + email);
-            return email;
-        } catch (Exception e) {
-            logger.error("Failed to extract email from token: {}", e.getMessage());
-            System.out.println(">> Ошибка извлечения email из токена: " + e.getMessage());
+            user = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new AuthenticatedUser(
+                    rs.getInt("ID"),
+                    rs.getString("email"),
+                    rs.getString("role")), email);
+        } catch (EmptyResultDataAccessException e) {
+            principalCache.remove(email);
+            logger.error("User not found with email: {}", email);
             return null;
         }
-    }
 
-    public String getUserRole(String token) {
-        String email = extractEmail(token);
-        if (email == null) {
-            return null;
+        if (principalCacheTtlMs > 0) {
+            if (principalCache.size() >= MAX_PRINCIPAL_CACHE_ENTRIES) {
+                principalCache.clear();
+            }
+            principalCache.put(email, new CacheEntry(now + principalCacheTtlMs, user));
         }
-
-        User user = getUserByEmail(email);
-        return user != null ? user.getStringRole() : null;
+        return user;
     }
 }
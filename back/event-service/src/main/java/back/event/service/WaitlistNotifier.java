@@ -0,0 +1,63 @@
+package back.event.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+
+/**
+ * Письмо участнику, которого продвинули из очереди ожидания. Отправка
+ * асинхронная: отмена регистрации не ждёт SMTP.
+ */
+@Service
+public class WaitlistNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistNotifier.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSender javaMailSender;
+
+    public WaitlistNotifier(JdbcTemplate jdbcTemplate, JavaMailSender javaMailSender) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.javaMailSender = javaMailSender;
+    }
+
+    @Async
+    public void notifyPromoted(int memberId, int eventId) {
+        String sql = """
+                SELECT u.\"email\", e.\"title\"
+                FROM \"User\" u, \"Event\" e
+                WHERE u.\"ID\" = ? AND e.\"ID\" = ?
+                """;
+        Map<String, Object> row;
+        try {
+            row = jdbcTemplate.queryForMap(sql, memberId, eventId);
+        } catch (EmptyResultDataAccessException e) {
+            return;
+        }
+        String to = (String) row.get("email");
+        try {
+            MimeMessage message = javaMailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setFrom("no-reply@event-portal.local", "Event Portal");
+            helper.setTo(to);
+            helper.setSubject("Вы зарегистрированы на событие");
+            helper.setText("Освободилось место, и вы зарегистрированы на «" + row.get("title") + "».", false);
+
+            javaMailSender.send(message);
+            logger.debug("Waitlist promotion email sent to {}", to);
+        } catch (MessagingException | UnsupportedEncodingException | MailException e) {
+            logger.warn("Failed to send waitlist promotion email to {}", to, e);
+        }
+    }
+}
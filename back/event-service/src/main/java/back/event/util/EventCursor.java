@@ -0,0 +1,64 @@
+package back.event.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозрачный keyset-курсор {@code GET /events}:
+ * {@code base64url(v1|<sort>|<значение ключа>|<ID>)} последней строки страницы.
+ *
+ * <p>
+ * Сортировка зашита в курсор: курсор, выданный для одной сортировки, с
+ * другой не принимается.
+ */
+public final class EventCursor {
+    private static final String VERSION = "v1";
+
+    private final String sort;
+    private final String value;
+    private final int id;
+
+    public EventCursor(String sort, String value, int id) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + sort + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public static EventCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        try {
+            return new EventCursor(parts[1], parts[2], Integer.parseInt(parts[3]));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package back.event.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Пользователь, проверенный на gateway, в виде заголовка {@value #HEADER}:
+ * {@code v1.<id>.<role>.<exp>.<base64url(email)>.<base64url(hmac)>}.
+ *
+ * <p>
+ * HMAC-SHA256 считается по всему, что стоит до последней точки, общим
+ * секретом {@code internal.principal.secret}. Заголовок разбирает
+ * {@code InternalPrincipalFilter}; сервису не нужно ни проверять JWT, ни
+ * искать пользователя по email, чтобы узнать его id и роль.
+ */
+public final class InternalPrincipal {
+    public static final String HEADER = "X-Internal-Principal";
+    private static final String VERSION = "v1";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    public static final String ATTRIBUTE = InternalPrincipal.class.getName();
+
+    private final int id;
+    private final String email;
+    private final String role;
+    private final long expiresAtEpochSecond;
+
+    public InternalPrincipal(int id, String email, String role, long expiresAtEpochSecond) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.expiresAtEpochSecond = expiresAtEpochSecond;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getExpiresAtEpochSecond() {
+        return expiresAtEpochSecond;
+    }
+
+    /**
+     * Принципал текущего запроса или {@code null}, если запрос пришёл без
+     * валидного заголовка (например, напрямую, минуя gateway).
+     */
+    public static InternalPrincipal current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object principal = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return principal instanceof InternalPrincipal internalPrincipal ? internalPrincipal : null;
+    }
+
+    public String encode(byte[] secret) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = VERSION + "." + id + "." + role + "." + expiresAtEpochSecond + "."
+                + encoder.encodeToString(email.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + encoder.encodeToString(sign(payload, secret));
+    }
+
+    /**
+     * @return принципал или {@code null}, если заголовок повреждён, подпись не
+     *         сходится или срок действия истёк
+     */
+    public static InternalPrincipal decode(String header, byte[] secret, long nowEpochSecond) {
+        if (header == null || secret == null || secret.length == 0) {
+            return null;
+        }
+        int signatureStart = header.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = header.substring(0, signatureStart);
+        String[] parts = payload.split("\\.");
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            return null;
+        }
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(header.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload, secret))) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(parts[3]);
+            if (expiresAt < nowEpochSecond) {
+                return null;
+            }
+            String email = new String(Base64.getUrlDecoder().decode(parts[4]), StandardCharsets.UTF_8);
+            return new InternalPrincipal(Integer.parseInt(parts[1]), email, parts[2], expiresAt);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static byte[] sign(String payload, byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+    }
+}
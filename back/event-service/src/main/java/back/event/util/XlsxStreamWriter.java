@@ -0,0 +1,128 @@
+package back.event.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Потоковая запись одного листа XLSX.
+ *
+ * <p>
+ * Служебные части книги пишутся в конструкторе, строки листа — сразу в
+ * zip-поток по мере вызова {@link #writeRow(Object...)}, поэтому память не
+ * зависит от числа строк. Строки хранятся как inline strings (без общей
+ * таблицы строк), числа — числовыми ячейками; стилей нет.
+ */
+public final class XlsxStreamWriter implements Closeable {
+    private static final String CONTENT_TYPES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>
+            <Default Extension="xml" ContentType="application/xml"/>
+            <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>
+            <Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>
+            </Types>
+            """;
+    private static final String ROOT_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>
+            </Relationships>
+            """;
+    private static final String WORKBOOK = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+            xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">
+            <sheets><sheet name="%s" sheetId="1" r:id="rId1"/></sheets>
+            </workbook>
+            """;
+    private static final String WORKBOOK_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>
+            </Relationships>
+            """;
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+
+    /**
+     * @param sheetName имя листа; Excel ограничивает его 31 символом
+     */
+    public XlsxStreamWriter(OutputStream out, String sheetName) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        String name = sheetName.length() > 31 ? sheetName.substring(0, 31) : sheetName;
+        part("[Content_Types].xml", CONTENT_TYPES);
+        part("_rels/.rels", ROOT_RELS);
+        part("xl/workbook.xml", WORKBOOK.formatted(escape(name)));
+        part("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        writer.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+    }
+
+    /**
+     * Дописывает строку: {@link Number} — числовая ячейка, {@code null} —
+     * пустая, остальное — текст через {@code toString()}.
+     */
+    public void writeRow(Object... cells) throws IOException {
+        writer.write("<row>");
+        for (Object cell : cells) {
+            if (cell == null) {
+                writer.write("<c/>");
+            } else if (cell instanceof Number number) {
+                writer.write("<c><v>");
+                writer.write(number.toString());
+                writer.write("</v></c>");
+            } else {
+                writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                writer.write(escape(cell.toString()));
+                writer.write("</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    /** Закрывает лист и завершает архив; сам {@code out} не закрывается. */
+    @Override
+    public void close() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void part(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    /** XML-экранирование; управляющие символы, недопустимые в XML 1.0, выбрасываются. */
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                default -> {
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package back.event.config;
+
+import back.event.model.AuthenticatedUser;
+import back.event.service.UserService;
+import back.event.util.InternalPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuthenticatedUserFilterUnitTest {
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void internalPrincipalShouldAuthenticateWithoutTokenOrDatabase() throws Exception {
+        UserService userService = mock(UserService.class);
+        AuthenticatedUserFilter filter = new AuthenticatedUserFilter(userService);
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/events/1");
+        request.addHeader("Authorization", "Bearer token");
+        request.setAttribute(InternalPrincipal.ATTRIBUTE,
+                new InternalPrincipal(7, "organizer@example.com", "organizer", Long.MAX_VALUE));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        assertThat(user.getId()).isEqualTo(7);
+        assertThat(user.getRole()).isEqualTo("organizer");
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ORGANIZER");
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void bearerTokenShouldBeResolvedOnce() throws Exception {
+        UserService userService = mock(UserService.class);
+        when(userService.authenticate("token")).thenReturn(new AuthenticatedUser(3, "admin@example.com", "admin"));
+        AuthenticatedUserFilter filter = new AuthenticatedUserFilter(userService);
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/events/1");
+        request.addHeader("Authorization", "Bearer token");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        AuthenticatedUser user = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication()
+                .getPrincipal();
+        assertThat(user.isAdmin()).isTrue();
+        verify(userService).authenticate("token");
+    }
+}
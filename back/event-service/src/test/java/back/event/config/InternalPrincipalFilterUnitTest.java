@@ -0,0 +1,38 @@
+package back.event.config;
+
+import back.event.util.InternalPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternalPrincipalFilterUnitTest {
+
+    @Test
+    void shouldAcceptOnlyCorrectlySignedPrincipal() throws Exception {
+        InternalPrincipalFilter filter = new InternalPrincipalFilter("internal");
+        long expiresAt = System.currentTimeMillis() / 1000 + 30;
+        String header = new InternalPrincipal(7, "organizer@example.com", "organizer", expiresAt)
+                .encode("internal".getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletRequest signed = new MockHttpServletRequest("GET", "/events/created");
+        signed.addHeader(InternalPrincipal.HEADER, header);
+        filter.doFilter(signed, new MockHttpServletResponse(), new MockFilterChain());
+
+        InternalPrincipal principal = (InternalPrincipal) signed.getAttribute(InternalPrincipal.ATTRIBUTE);
+        assertThat(principal).isNotNull();
+        assertThat(principal.getId()).isEqualTo(7);
+        assertThat(principal.getEmail()).isEqualTo("organizer@example.com");
+        assertThat(principal.getRole()).isEqualTo("organizer");
+
+        MockHttpServletRequest forged = new MockHttpServletRequest("GET", "/events/created");
+        forged.addHeader(InternalPrincipal.HEADER, header.replace(".7.organizer.", ".1.admin."));
+        filter.doFilter(forged, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(forged.getAttribute(InternalPrincipal.ATTRIBUTE)).isNull();
+    }
+}
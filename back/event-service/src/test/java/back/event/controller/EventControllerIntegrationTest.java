@@ -1,18 +1,52 @@
 package back.event.controller;
 
 import back.event.dto.EventDTO;
+import back.event.dto.EventPage;
+import back.event.dto.EventQuery;
+import back.event.dto.FeedbackDTO;
+import back.event.dto.FeedbackPage;
+import back.event.dto.NearbyEventDTO;
+import back.event.dto.RegistrationImportReport;
+import back.event.dto.RegistrationImportRow;
+import back.event.model.AuthenticatedUser;
+import back.event.model.enums.ImportRowStatus;
+import back.event.model.enums.RegistrationOutcome;
 import back.event.service.EventService;
+import back.event.service.FlashSaleService;
+import back.event.service.NewsletterService;
+import back.event.service.ParticipantExportService;
+import back.event.service.RegistrationImportService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -26,24 +60,242 @@ class EventControllerIntegrationTest {
     @MockBean
     private EventService eventService;
 
+    @MockBean
+    private FlashSaleService flashSaleService;
+
+    @MockBean
+    private NewsletterService newsletterService;
+
+    @MockBean
+    private ParticipantExportService participantExportService;
+
+    @MockBean
+    private RegistrationImportService registrationImportService;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
-    void listEventsShouldFilterByCategory() throws Exception {
+    void listEventsShouldPushFiltersToServiceAndExposeNextCursor() throws Exception {
         EventDTO musicEvent = new EventDTO();
         musicEvent.setId(1);
         musicEvent.setTitle("Music Fest");
         musicEvent.setEventCategory("music");
 
-        EventDTO sportEvent = new EventDTO();
-        sportEvent.setId(2);
-        sportEvent.setTitle("Sport Cup");
-        sportEvent.setEventCategory("sport");
-
-        when(eventService.getAllEvents()).thenReturn(List.of(musicEvent, sportEvent));
+        when(eventService.findEvents(any(EventQuery.class)))
+                .thenReturn(new EventPage(List.of(musicEvent), "next-page"));
 
-        mockMvc.perform(get("/events").param("category", "music"))
+        mockMvc.perform(get("/events")
+                .param("category", "music")
+                .param("tags", "rock,jazz")
+                .param("sort", "-price")
+                .param("limit", "1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next-page"))
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].eventCategory").value("music"));
+
+        ArgumentCaptor<EventQuery> query = ArgumentCaptor.forClass(EventQuery.class);
+        verify(eventService).findEvents(query.capture());
+        assertThat(query.getValue().getCategory()).isEqualTo("music");
+        assertThat(query.getValue().getTags()).containsExactly("rock", "jazz");
+        assertThat(query.getValue().getSort()).isEqualTo("-price");
+        assertThat(query.getValue().getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void listEventsShouldRejectInvalidQuery() throws Exception {
+        when(eventService.findEvents(any(EventQuery.class)))
+                .thenThrow(new IllegalArgumentException("Unknown sort order."));
+
+        mockMvc.perform(get("/events").param("sort", "title"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown sort order."));
+    }
+
+    @Test
+    void nearbyEventsShouldReturnDistanceAndNextCursor() throws Exception {
+        EventDTO event = new EventDTO();
+        event.setId(5);
+        event.setTitle("Open Air");
+        when(eventService.findNearby(59.95, 30.31, 3.0, 1, null))
+                .thenReturn(new EventPage(List.of(new NearbyEventDTO(event, 1.25)), "next-page"));
+
+        mockMvc.perform(get("/events/nearby")
+                .param("lat", "59.95")
+                .param("lng", "30.31")
+                .param("radiusKm", "3")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next-page"))
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[0].distanceKm").value(1.25));
+    }
+
+    @Test
+    void feedbackShouldReturnTypedPageFilteredByRating() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(7, "organizer@example.com", "organizer"), null, List.of()));
+        FeedbackDTO feedback = new FeedbackDTO(31, 5, 12, "Anna", 5, "Great: loved it", "2026-05-01 18:00:00");
+        when(eventService.getFeedbacks(5, 5, 1, "page-1"))
+                .thenReturn(new FeedbackPage(List.of(feedback), "page-2"));
+
+        mockMvc.perform(get("/events/5/feedback")
+                .param("rating", "5")
+                .param("limit", "1")
+                .param("cursor", "page-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "page-2"))
+                .andExpect(jsonPath("$[0].id").value(31))
+                .andExpect(jsonPath("$[0].userName").value("Anna"))
+                .andExpect(jsonPath("$[0].rating").value(5))
+                .andExpect(jsonPath("$[0].comment").value("Great: loved it"));
+
+        when(eventService.getFeedbacks(5, 9, null, null))
+                .thenThrow(new IllegalArgumentException("rating must be between 1 and 5."));
+        mockMvc.perform(get("/events/5/feedback").param("rating", "9"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("rating must be between 1 and 5."));
+    }
+
+    @Test
+    void createEventShouldPassResolvedPrincipalToService() throws Exception {
+        AuthenticatedUser organizer = new AuthenticatedUser(7, "organizer@example.com", "organizer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(organizer, null, List.of()));
+        when(eventService.addEvent(eq(7), eq("organizer"), any(EventDTO.class)))
+                .thenReturn("Event created successfully.");
+
+        mockMvc.perform(post("/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Music Fest\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Event created successfully."));
+    }
+
+    @Test
+    void registrationShouldMapOutcomeToStatus() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(9, "participant@example.com", "participant"), null, List.of()));
+        when(eventService.registerForEvent(9, 1)).thenReturn(RegistrationOutcome.REGISTERED);
+        when(eventService.registerForEvent(9, 2)).thenReturn(RegistrationOutcome.WAITLISTED);
+        when(eventService.getWaitlistPosition(9, 2)).thenReturn(3);
+        when(eventService.registerForEvent(9, 3)).thenReturn(RegistrationOutcome.EVENT_NOT_FOUND);
+
+        mockMvc.perform(post("/events/1/registrations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Registration successful."));
+        mockMvc.perform(post("/events/2/registrations"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.position").value(3));
+        mockMvc.perform(post("/events/3/registrations"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createEventShouldRejectAnonymousRequest() throws Exception {
+        mockMvc.perform(post("/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Music Fest\"}"))
+                .andExpect(status().isUnauthorized());
+
+        verify(eventService, never()).addEvent(anyInt(), anyString(), any(EventDTO.class));
+    }
+
+    @Test
+    void newsletterShouldBeQueuedForOrganizerOnly() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(7, "organizer@example.com", "organizer"), null, List.of()));
+        when(newsletterService.canSend(7, "organizer", 1)).thenReturn(true);
+        when(newsletterService.enqueue(7, 1, "Hello")).thenReturn(42L);
+
+        mockMvc.perform(post("/events/1/newsletter").content("Hello"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value(42));
+
+        mockMvc.perform(post("/events/2/newsletter").content("Hello"))
+                .andExpect(status().isForbidden());
+        verify(newsletterService, never()).enqueue(anyInt(), eq(2), anyString());
+    }
+
+    @Test
+    void participantsShouldStreamWhenRequested() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(7, "organizer@example.com", "organizer"), null, List.of()));
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("[{\"id\":5}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(eventService).streamRegisteredUsers(eq(1), any(OutputStream.class));
+
+        mockMvc.perform(get("/events/1/participants").param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(5));
+        verify(eventService, never()).getRegisteredUsers(anyInt());
+    }
+
+    @Test
+    void exportShouldStreamGzippedCsvToOrganizer() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(7, "organizer@example.com", "organizer"), null, List.of()));
+        when(participantExportService.canExport(7, "organizer", 1)).thenReturn(true);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("id,name\n5,Anna\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(participantExportService).exportCsv(eq(1), any(OutputStream.class));
+
+        byte[] body = mockMvc.perform(get("/events/1/registrations/export").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"event-1-participants.csv\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,name\n5,Anna\n");
+        }
+        verify(eventService, never()).getRegisteredUsers(anyInt());
+    }
+
+    @Test
+    void exportShouldRejectNonOrganizer() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(8, "member@example.com", "user"), null, List.of()));
+
+        mockMvc.perform(get("/events/1/registrations/export").param("format", "xlsx"))
+                .andExpect(status().isForbidden());
+        verify(participantExportService, never()).exportXlsx(anyInt(), any(OutputStream.class));
+    }
+
+    @Test
+    void importShouldPassCsvBodyAndReturnRowReport() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(7, "organizer@example.com", "organizer"), null, List.of()));
+        when(registrationImportService.canImport(7, "organizer", 1)).thenReturn(true);
+        StringBuilder received = new StringBuilder();
+        doAnswer(invocation -> {
+            Reader csv = invocation.getArgument(1);
+            int c;
+            while ((c = csv.read()) != -1) {
+                received.append((char) c);
+            }
+            return new RegistrationImportReport(1, List.of(
+                    new RegistrationImportRow(2, "anna@example.com", ImportRowStatus.REGISTERED),
+                    new RegistrationImportRow(3, "ghost@example.com", ImportRowStatus.USER_NOT_FOUND)));
+        }).when(registrationImportService).importCsv(eq(1), any(Reader.class));
+
+        mockMvc.perform(post("/events/1/registrations/import")
+                .contentType("text/csv")
+                .content("email\nanna@example.com\nghost@example.com\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totals.REGISTERED").value(1))
+                .andExpect(jsonPath("$.totals.USER_NOT_FOUND").value(1))
+                .andExpect(jsonPath("$.rows[1].row").value(3))
+                .andExpect(jsonPath("$.rows[1].status").value("USER_NOT_FOUND"));
+        assertThat(received.toString()).isEqualTo("email\nanna@example.com\nghost@example.com\n");
     }
 }
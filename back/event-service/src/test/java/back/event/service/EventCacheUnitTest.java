@@ -0,0 +1,137 @@
+package back.event.service;
+
+import back.event.dto.EventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventCacheUnitTest {
+
+    @Test
+    void hitShouldServeSerializedJsonUntilInvalidated() throws Exception {
+        EventCache cache = listeningCache(100);
+        try {
+            AtomicInteger loads = new AtomicInteger();
+            EventDTO event = event(1, "Jazz night");
+
+            byte[] first = cache.get(1, id -> {
+                loads.incrementAndGet();
+                return event;
+            });
+
+            byte[] hit = cache.get(1, id -> {
+                loads.incrementAndGet();
+                return event;
+            });
+            assertThat(new String(first)).contains("\"title\":\"Jazz night\"");
+            assertThat(hit).isEqualTo(first);
+            assertThat(loads.get()).isEqualTo(1);
+
+            cache.invalidate(1);
+            event.setTitle("Jazz morning");
+            byte[] reloaded = cache.get(1, id -> {
+                loads.incrementAndGet();
+                return event;
+            });
+            assertThat(new String(reloaded)).contains("\"title\":\"Jazz morning\"");
+            assertThat(loads.get()).isEqualTo(2);
+        } finally {
+            cache.stop();
+        }
+    }
+
+    @Test
+    void invalidationShouldOnlyDropLoadsOfTheSameEvent() throws Exception {
+        EventCache cache = listeningCache(100);
+        try {
+            AtomicInteger loads = new AtomicInteger();
+
+            cache.get(1, id -> {
+                cache.invalidate(2);
+                loads.incrementAndGet();
+                return event(1, "Jazz night");
+            });
+            cache.get(2, id -> {
+                cache.invalidate(2);
+                loads.incrementAndGet();
+                return event(2, "Stale");
+            });
+            cache.get(1, id -> {
+                loads.incrementAndGet();
+                return event(1, "Jazz night");
+            });
+            byte[] reloaded = cache.get(2, id -> {
+                loads.incrementAndGet();
+                return event(2, "Fresh");
+            });
+
+            assertThat(loads.get()).isEqualTo(3);
+            assertThat(new String(reloaded)).contains("\"title\":\"Fresh\"");
+            assertThat(new String(cache.get(2, id -> event(2, "unused")))).contains("\"title\":\"Fresh\"");
+        } finally {
+            cache.stop();
+        }
+    }
+
+    @Test
+    void fullCacheShouldEvictOldestEntriesInsteadOfClearing() throws Exception {
+        EventCache cache = listeningCache(10);
+        try {
+            AtomicInteger loads = new AtomicInteger();
+            for (int id = 1; id <= 11; id++) {
+                cache.get(id, key -> {
+                    loads.incrementAndGet();
+                    return event(key, "Event " + key);
+                });
+                Thread.sleep(2);
+            }
+            loads.set(0);
+            for (int id = 2; id <= 11; id++) {
+                cache.get(id, key -> {
+                    loads.incrementAndGet();
+                    return event(key, "Event " + key);
+                });
+            }
+
+            assertThat(loads.get()).isZero();
+        } finally {
+            cache.stop();
+        }
+    }
+
+    private static EventCache listeningCache(int maxEntries) throws Exception {
+        Connection connection = mock(Connection.class);
+        DataSource dataSource = mock(DataSource.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getNotifications(anyInt())).thenReturn(null);
+
+        EventCache cache = new EventCache(dataSource, new ObjectMapper(), Duration.ofMinutes(1), maxEntries);
+        cache.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!cache.isListening() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return cache;
+    }
+
+    private static EventDTO event(int id, String title) {
+        EventDTO event = new EventDTO();
+        event.setId(id);
+        event.setTitle(title);
+        return event;
+    }
+}
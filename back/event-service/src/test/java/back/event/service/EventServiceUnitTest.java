@@ -0,0 +1,74 @@
+package back.event.service;
+
+import back.event.dto.EventQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventServiceUnitTest {
+
+    @Test
+    void searchQueryShouldKeepOnlyWordsAsPrefixTerms() {
+        assertThat(EventService.toPrefixTsQuery("Джаз  Fest!")).isEqualTo("джаз:* & fest:*");
+        assertThat(EventService.toPrefixTsQuery("rock' | !(jazz) & 2024")).isEqualTo("rock:* & jazz:* & 2024:*");
+        assertThat(EventService.toPrefixTsQuery(" :* & | ")).isNull();
+        assertThat(EventService.toPrefixTsQuery(null)).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tagFilterShouldBindOneArrayParameter() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        EventService service = new EventService(jdbcTemplate, null, null, null, 500);
+        EventQuery query = new EventQuery();
+        query.setTags(List.of(" jazz", "open-air", "jazz", ""));
+        query.setTagMatch("any");
+
+        service.findEvents(query);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertThat(sql.getValue()).contains("\"tags\" && ?::TEXT[]");
+        assertThat(args.getValue()[0]).isEqualTo(new String[] { "jazz", "open-air" });
+    }
+
+    @Test
+    void streamingShouldWriteRowsAsJsonArray() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("ID")).thenReturn(1, 2);
+        when(rs.getString("name")).thenReturn("Anna", "Boris");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        EventService service = new EventService(jdbcTemplate, null, null, new ObjectMapper(), 500);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.streamRegisteredUsers(1, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "[{\"id\":1,\"name\":\"Anna\",\"email\":null,\"phoneNumber\":null},"
+                        + "{\"id\":2,\"name\":\"Boris\",\"email\":null,\"phoneNumber\":null}]");
+    }
+}
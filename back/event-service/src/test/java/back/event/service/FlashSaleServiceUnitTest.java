@@ -0,0 +1,33 @@
+package back.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlashSaleServiceUnitTest {
+
+    @Test
+    void enableShouldCheckOwnershipAndShardBounds() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(1), eq(7))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(1), eq(8))).thenReturn(0);
+        when(jdbcTemplate.queryForObject("SELECT enable_flash_sale(?, ?)", String.class, 1, 32))
+                .thenReturn("ENABLED");
+        FlashSaleService service = new FlashSaleService(jdbcTemplate, 32);
+
+        assertThat(service.enable(8, "organizer", 1, null))
+                .isEqualTo("Only the event organizer or admins can manage flash sales.");
+        assertThat(service.enable(7, "organizer", 1, 0)).startsWith("shards must be between");
+        verify(jdbcTemplate, never()).queryForObject(eq("SELECT enable_flash_sale(?, ?)"), eq(String.class),
+                eq(1), eq(0));
+
+        assertThat(service.enable(7, "organizer", 1, null)).isEqualTo("Flash sale enabled.");
+    }
+}
@@ -0,0 +1,90 @@
+package back.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class NewsletterWorkerUnitTest {
+
+    @Test
+    void batchShouldGoThroughOneSmtpSessionAndReportRejectedRecipients() throws Exception {
+        AtomicInteger connections = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread smtp = new Thread(() -> serve(server, connections, accepted));
+            smtp.setDaemon(true);
+            smtp.start();
+
+            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+            mailSender.setHost("127.0.0.1");
+            mailSender.setPort(server.getLocalPort());
+            NewsletterWorker worker = new NewsletterWorker(mock(JdbcTemplate.class), mailSender,
+                    false, 1, 50, 0, 5, Duration.ofMinutes(5), false);
+
+            Map<Long, String> errors = worker.send(List.of(
+                    new NewsletterWorker.Delivery(1, "a@example.com", "Hello", 1),
+                    new NewsletterWorker.Delivery(2, "rejected@example.com", "Hello", 1),
+                    new NewsletterWorker.Delivery(3, "c@example.com", "Hello", 1)));
+
+            assertThat(errors).containsOnlyKeys(2L);
+            assertThat(accepted.get()).isEqualTo(2);
+            assertThat(connections.get()).isEqualTo(1);
+        }
+    }
+
+    /** Минимальный SMTP-сервер: принимает всё, кроме адресатов {@code rejected@...}. */
+    private static void serve(ServerSocket server, AtomicInteger connections, AtomicInteger accepted) {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                connections.incrementAndGet();
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream();
+                reply(out, "220 fake ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(out, "250 fake");
+                    } else if (command.startsWith("RCPT") && command.contains("REJECTED@")) {
+                        reply(out, "550 no such user");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 go ahead");
+                        while (!".".equals(in.readLine())) {
+                            // тело письма не проверяется
+                        }
+                        accepted.incrementAndGet();
+                        reply(out, "250 queued");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 bye");
+                        break;
+                    } else {
+                        reply(out, "250 ok");
+                    }
+                }
+            } catch (Exception e) {
+                return;
+            }
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws Exception {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
@@ -0,0 +1,38 @@
+package back.event.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistrationImportServiceUnitTest {
+
+    @Test
+    void readRowsShouldFindEmailColumnAndKeepFileLineNumbers() throws Exception {
+        String csv = "\uFEFFname;Email\r\n"
+                + "\"Smith; Anna\";anna@example.com\r\n"
+                + ";\r\n"
+                + "\"Bob \"\"B\"\"\"; bob@example.com \n";
+
+        List<RegistrationImportService.StagedRow> rows =
+                RegistrationImportService.readRows(new StringReader(csv), 10);
+
+        assertThat(rows).containsExactly(
+                new RegistrationImportService.StagedRow(2, "anna@example.com"),
+                new RegistrationImportService.StagedRow(4, "bob@example.com"));
+    }
+
+    @Test
+    void readRowsShouldAcceptHeaderlessListAndEnforceRowLimit() throws Exception {
+        assertThat(RegistrationImportService.readRows(new StringReader("a@x.io\nb@x.io"), 2))
+                .extracting(RegistrationImportService.StagedRow::email)
+                .containsExactly("a@x.io", "b@x.io");
+        assertThatThrownBy(() -> RegistrationImportService.readRows(new StringReader("a@x.io\nb@x.io\nc@x.io"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RegistrationImportService.readRows(new StringReader("name\nAnna"), 2))
+                .hasMessage("CSV must have an email column.");
+    }
+}
@@ -10,7 +10,7 @@ class JwtTokenUtilUnitTest {
     @Test
     void shouldGenerateValidateAndParseToken() {
         JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
-        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", "event-secret");
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", "event-secret-with-at-least-256-bits");
         ReflectionTestUtils.setField(jwtTokenUtil, "jwtExpiration", 60_000L);
 
         String token = jwtTokenUtil.generateJwtToken("organizer@example.com");
@@ -18,4 +18,23 @@ class JwtTokenUtilUnitTest {
         assertThat(jwtTokenUtil.validateJwtToken(token)).isTrue();
         assertThat(jwtTokenUtil.getEmailFromJwtToken(token)).isEqualTo("organizer@example.com");
     }
+
+    @Test
+    void verifyShouldParseOnceAndMemoizeUntilExpiry() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtSecret", "event-secret-with-at-least-256-bits");
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "verifyCacheSize", 16);
+
+        String token = jwtTokenUtil.generateJwtToken("organizer@example.com");
+        TokenClaims first = jwtTokenUtil.verify(token);
+
+        assertThat(first.getSubject()).isEqualTo("organizer@example.com");
+        assertThat(first.getExpiration()).isAfter(first.getIssuedAt());
+        assertThat(jwtTokenUtil.verify(" " + token + " ")).isSameAs(first);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThat(jwtTokenUtil.verify(tampered)).isNull();
+        assertThat(jwtTokenUtil.verify(null)).isNull();
+    }
 }
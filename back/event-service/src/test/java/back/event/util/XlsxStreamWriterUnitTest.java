@@ -0,0 +1,43 @@
+package back.event.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XlsxStreamWriterUnitTest {
+
+    @Test
+    void shouldWriteWorkbookWithEscapedInlineStrings() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XlsxStreamWriter xlsx = new XlsxStreamWriter(out, "Participants")) {
+            xlsx.writeRow("id", "name");
+            xlsx.writeRow(5, "Tom & \"Jerry\" <x>\u0001");
+            xlsx.writeRow(6, null);
+        }
+
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                parts.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertThat(parts).containsKeys("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/worksheets/sheet1.xml");
+        assertThat(parts.get("xl/workbook.xml")).contains("<sheet name=\"Participants\"");
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        assertThat(sheet).contains("<row><c><v>5</v></c><c t=\"inlineStr\"><is><t xml:space=\"preserve\">"
+                + "Tom &amp; &quot;Jerry&quot; &lt;x&gt;</t></is></c></row>");
+        assertThat(sheet).contains("<row><c><v>6</v></c><c/></row>");
+        assertThat(sheet).endsWith("</sheetData></worksheet>");
+    }
+}
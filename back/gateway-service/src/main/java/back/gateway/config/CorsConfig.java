@@ -40,7 +40,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns(this.allowedOriginPatterns)
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("Authorization", "Location")
+                .exposedHeaders("Authorization", "Location", "X-Next-Cursor")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -0,0 +1,209 @@
+package back.gateway.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Таблица маршрутов gateway ({@code gateway.routes[i].*}).
+ *
+ * <pre>
+ * gateway.routes[0].id=event
+ * gateway.routes[0].prefixes=/events
+ * gateway.routes[0].uris=http://event-1:8083,http://event-2:8083
+ * gateway.routes[0].read-timeout=5s
+ * gateway.routes[0].retries=1
+ * gateway.routes[0].slow-start=30s
+ * </pre>
+ *
+ * Если список пуст, маршруты строятся из legacy-свойств
+ * {@code services.*.base-url} (см. {@link RoutingConfig}).
+ */
+@ConfigurationProperties(prefix = "gateway")
+public class GatewayRoutesProperties {
+    private List<RouteProperties> routes = new ArrayList<>();
+
+    public List<RouteProperties> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<RouteProperties> routes) {
+        this.routes = routes;
+    }
+
+    public static class RouteProperties {
+        private String id;
+        private List<String> prefixes = new ArrayList<>();
+        private List<String> uris = new ArrayList<>();
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(30);
+        private int retries = 0;
+        /** Сколько ведущих сегментов пути отрезать перед отправкой upstream. */
+        private int stripPrefix = 0;
+        /** Замена совпавшего префикса (например, {@code /geo} -> {@code /api/geo}). */
+        private String prefixRewrite;
+        /** Период плавного набора трафика после (ре)admission инстанса. */
+        private Duration slowStart = Duration.ofSeconds(30);
+        /** Путь активной проверки; здоров любой ответ со статусом ниже 500. */
+        private String healthPath = "/";
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private Hedge hedge = new Hedge();
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public List<String> getPrefixes() {
+            return prefixes;
+        }
+
+        public void setPrefixes(List<String> prefixes) {
+            this.prefixes = prefixes;
+        }
+
+        public List<String> getUris() {
+            return uris;
+        }
+
+        public void setUris(List<String> uris) {
+            this.uris = uris;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public int getStripPrefix() {
+            return stripPrefix;
+        }
+
+        public void setStripPrefix(int stripPrefix) {
+            this.stripPrefix = stripPrefix;
+        }
+
+        public String getPrefixRewrite() {
+            return prefixRewrite;
+        }
+
+        public void setPrefixRewrite(String prefixRewrite) {
+            this.prefixRewrite = prefixRewrite;
+        }
+
+        public Duration getSlowStart() {
+            return slowStart;
+        }
+
+        public void setSlowStart(Duration slowStart) {
+            this.slowStart = slowStart;
+        }
+
+        public String getHealthPath() {
+            return healthPath;
+        }
+
+        public void setHealthPath(String healthPath) {
+            this.healthPath = healthPath;
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        public Hedge getHedge() {
+            return hedge;
+        }
+
+        public void setHedge(Hedge hedge) {
+            this.hedge = hedge;
+        }
+    }
+
+    /**
+     * Circuit breaker каждого инстанса маршрута; {@code failure-threshold=0}
+     * отключает breaker.
+     */
+    public static class CircuitBreaker {
+        /** Отказов подряд (I/O-ошибка, 502/503/504) до размыкания. */
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+    }
+
+    /**
+     * Hedging GET: второй запрос уходит на другой инстанс, если первый не
+     * ответил за p95 маршрута (в пределах [min-delay, max-delay]).
+     */
+    public static class Hedge {
+        private boolean enabled = false;
+        private Duration minDelay = Duration.ofMillis(10);
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+    }
+}
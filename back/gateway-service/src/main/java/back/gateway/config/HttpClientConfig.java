@@ -1,24 +1,27 @@
 package back.gateway.config;
 
+import back.gateway.service.RouteTable;
 import java.io.IOException;
-import java.net.http.HttpClient;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class HttpClientConfig {
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        HttpClient httpClient = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.NEVER)
-                .build();
-        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    public RestTemplate restTemplate(RestTemplateBuilder builder, RouteTable routeTable,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // Асинхронная часть JDK HttpClient (publisher тела, чтение ответа) иначе
+        // живёт в собственном cached pool платформенных потоков.
+        Executor executor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        RouteAwareRequestFactory requestFactory = new RouteAwareRequestFactory(routeTable, executor);
 
         return builder
                 .requestFactory(() -> requestFactory)
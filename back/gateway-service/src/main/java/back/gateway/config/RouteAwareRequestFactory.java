@@ -0,0 +1,60 @@
+package back.gateway.config;
+
+import back.gateway.model.Route;
+import back.gateway.service.RouteTable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/**
+ * Фабрика запросов, применяющая таймауты маршрута: upstream-инстанс
+ * определяется по scheme://host:port целевого URI. JDK HttpClient/фабрика
+ * создаются один раз на маршрут при создании бина, так что на запрос
+ * приходится только поиск без аллокаций.
+ */
+class RouteAwareRequestFactory implements ClientHttpRequestFactory {
+    private final RouteTable routeTable;
+    private final Executor executor;
+    private final Map<Route, JdkClientHttpRequestFactory> factories = new IdentityHashMap<>();
+    private final JdkClientHttpRequestFactory defaultFactory;
+
+    RouteAwareRequestFactory(RouteTable routeTable, Executor executor) {
+        this.routeTable = routeTable;
+        this.executor = executor;
+        this.defaultFactory = create(null, null);
+        for (Route route : routeTable.getRoutes()) {
+            factories.put(route, create(route.getConnectTimeout(), route.getReadTimeout()));
+        }
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        Route route = routeTable.routeForUpstream(uri);
+        JdkClientHttpRequestFactory factory = route != null ? factories.get(route) : null;
+        return (factory != null ? factory : defaultFactory).createRequest(uri, httpMethod);
+    }
+
+    private JdkClientHttpRequestFactory create(Duration connectTimeout, Duration readTimeout) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (connectTimeout != null) {
+            builder.connectTimeout(connectTimeout);
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(builder.build());
+        if (readTimeout != null) {
+            factory.setReadTimeout(readTimeout);
+        }
+        return factory;
+    }
+}
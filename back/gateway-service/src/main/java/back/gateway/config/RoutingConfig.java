@@ -0,0 +1,85 @@
+package back.gateway.config;
+
+import back.gateway.model.ResiliencePolicy;
+import back.gateway.model.Route;
+import back.gateway.service.RouteTable;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GatewayRoutesProperties.class)
+public class RoutingConfig {
+
+    @Bean
+    public RouteTable routeTable(
+            GatewayRoutesProperties properties,
+            @Value("${services.auth.base-url:}") String authBaseUrl,
+            @Value("${services.user.base-url:}") String userBaseUrl,
+            @Value("${services.event.base-url:}") String eventBaseUrl,
+            @Value("${services.quiz.base-url:}") String quizBaseUrl,
+            @Value("${services.geo.base-url:}") String geoBaseUrl) {
+        List<GatewayRoutesProperties.RouteProperties> definitions = properties.getRoutes();
+        if (definitions.isEmpty()) {
+            definitions = new ArrayList<>();
+            addLegacyRoute(definitions, "auth", authBaseUrl, "/auth");
+            addLegacyRoute(definitions, "user", userBaseUrl, "/users");
+            addLegacyRoute(definitions, "event", eventBaseUrl, "/events");
+            addLegacyRoute(definitions, "quiz", quizBaseUrl, "/quizzes");
+            addLegacyRoute(definitions, "geo", geoBaseUrl, "/api/geo", "/geo", "/api/address", "/address");
+        }
+
+        List<Route> routes = new ArrayList<>();
+        List<List<String>> prefixes = new ArrayList<>();
+        for (GatewayRoutesProperties.RouteProperties definition : definitions) {
+            routes.add(new Route(
+                    definition.getId(),
+                    splitUris(definition.getUris()),
+                    definition.getConnectTimeout(),
+                    definition.getReadTimeout(),
+                    definition.getRetries(),
+                    definition.getStripPrefix(),
+                    definition.getPrefixRewrite(),
+                    definition.getSlowStart(),
+                    definition.getHealthPath(),
+                    new ResiliencePolicy(
+                            definition.getCircuitBreaker().getFailureThreshold(),
+                            definition.getCircuitBreaker().getOpenDuration(),
+                            definition.getHedge().isEnabled(),
+                            definition.getHedge().getMinDelay(),
+                            definition.getHedge().getMaxDelay())));
+            prefixes.add(definition.getPrefixes());
+        }
+        return new RouteTable(routes, prefixes);
+    }
+
+    /**
+     * {@code services.*.base-url} может содержать несколько инстансов через запятую.
+     */
+    private static void addLegacyRoute(List<GatewayRoutesProperties.RouteProperties> definitions, String id,
+            String baseUrls, String... prefixes) {
+        if (baseUrls == null || baseUrls.isBlank()) {
+            return;
+        }
+        GatewayRoutesProperties.RouteProperties definition = new GatewayRoutesProperties.RouteProperties();
+        definition.setId(id);
+        definition.setUris(List.of(baseUrls));
+        definition.setPrefixes(List.of(prefixes));
+        definitions.add(definition);
+    }
+
+    private static List<String> splitUris(List<String> uris) {
+        List<String> result = new ArrayList<>();
+        for (String raw : uris) {
+            for (String uri : raw.split(",")) {
+                if (!uri.isBlank()) {
+                    result.add(uri.trim());
+                }
+            }
+        }
+        return result;
+    }
+}
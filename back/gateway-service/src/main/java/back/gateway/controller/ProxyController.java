@@ -1,7 +1,20 @@
 package back.gateway.controller;
 
+import back.gateway.model.ProxiedResponse;
+import back.gateway.model.Route;
+import back.gateway.service.ClientStreamException;
+import back.gateway.service.PrincipalResolver;
+import back.gateway.service.RequestCoalescer;
+import back.gateway.service.RequestKeyFactory;
+import back.gateway.service.ResponseCache;
+import back.gateway.service.RouteTable;
+import back.gateway.service.UpstreamInvoker;
+import back.gateway.util.InternalPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Enumeration;
@@ -12,11 +25,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 @RestController
@@ -42,45 +58,57 @@ public class ProxyController {
      */
     private static final String ACCESS_CONTROL_PREFIX = "access-control-";
 
-    private final RestTemplate restTemplate;
+    /** Выставляется только gateway; значение от клиента всегда отбрасывается. */
+    private static final String INTERNAL_PRINCIPAL_HEADER = InternalPrincipal.HEADER.toLowerCase(Locale.ROOT);
 
-    private final String authBaseUrl;
-    private final String userBaseUrl;
-    private final String eventBaseUrl;
-    private final String quizBaseUrl;
-    private final String geoBaseUrl;
+    private final RestTemplate restTemplate;
+    private final RouteTable routeTable;
+    private final RequestKeyFactory requestKeyFactory;
+    private final RequestCoalescer requestCoalescer;
+    private final ResponseCache responseCache;
+    private final UpstreamInvoker upstreamInvoker;
+    private final PrincipalResolver principalResolver;
+    private final boolean streamingEnabled;
+    private final int streamingBufferSize;
+    private final long streamingMinBodySize;
 
     public ProxyController(
             RestTemplate restTemplate,
-            @Value("${services.auth.base-url}") String authBaseUrl,
-            @Value("${services.user.base-url}") String userBaseUrl,
-            @Value("${services.event.base-url}") String eventBaseUrl,
-            @Value("${services.quiz.base-url}") String quizBaseUrl,
-            @Value("${services.geo.base-url}") String geoBaseUrl) {
+            RouteTable routeTable,
+            RequestKeyFactory requestKeyFactory,
+            RequestCoalescer requestCoalescer,
+            ResponseCache responseCache,
+            UpstreamInvoker upstreamInvoker,
+            PrincipalResolver principalResolver,
+            @Value("${gateway.proxy.streaming.enabled:false}") boolean streamingEnabled,
+            @Value("${gateway.proxy.streaming.buffer-size:8192}") int streamingBufferSize,
+            @Value("${gateway.proxy.streaming.min-body-size:65536}") long streamingMinBodySize) {
         this.restTemplate = restTemplate;
-        this.authBaseUrl = stripTrailingSlash(authBaseUrl);
-        this.userBaseUrl = stripTrailingSlash(userBaseUrl);
-        this.eventBaseUrl = stripTrailingSlash(eventBaseUrl);
-        this.quizBaseUrl = stripTrailingSlash(quizBaseUrl);
-        this.geoBaseUrl = stripTrailingSlash(geoBaseUrl);
-    }
-
-    @RequestMapping({
-            "/auth/**",
-            "/users/**",
-            "/events/**",
-            "/quizzes/**",
-            "/api/geo/**",
-            "/geo/**",
-            "/api/address/**",
-            "/address/**"
-    })
-    public ResponseEntity<byte[]> proxy(HttpServletRequest request) throws IOException {
+        this.routeTable = routeTable;
+        this.requestKeyFactory = requestKeyFactory;
+        this.requestCoalescer = requestCoalescer;
+        this.responseCache = responseCache;
+        this.upstreamInvoker = upstreamInvoker;
+        this.principalResolver = principalResolver;
+        this.streamingEnabled = streamingEnabled;
+        this.streamingBufferSize = Math.max(streamingBufferSize, 512);
+        this.streamingMinBodySize = Math.max(streamingMinBodySize, 0);
+    }
+
+    /**
+     * Все пути; маршрут выбирается по {@link RouteTable}, неизвестные пути
+     * получают 404. Эндпоинты actuator и /error обрабатываются своими
+     * mapping'ами с более высоким приоритетом.
+     */
+    @RequestMapping("/**")
+    public ResponseEntity<byte[]> proxy(HttpServletRequest request, HttpServletResponse servletResponse)
+            throws IOException {
         String requestPath = request.getRequestURI();
-        String baseUrl = resolveBaseUrl(requestPath);
-        if (baseUrl == null) {
+        RouteTable.Binding binding = routeTable.lookup(requestPath);
+        if (binding == null) {
             return ResponseEntity.notFound().build();
         }
+        Route route = binding.getRoute();
 
         // Важно: прокидываем query string прозрачно.
         // Для кириллицы Servlet контейнер может декодировать параметры не тем charset,
@@ -88,9 +116,12 @@ public class ProxyController {
         // Чтобы избежать и проблем с charset, и двойного кодирования, собираем URI
         // из сырого percent-encoded query и передаём в RestTemplate именно URI.
         String rawQuery = request.getQueryString();
-        URI targetUri = (rawQuery == null || rawQuery.isBlank())
-                ? URI.create(baseUrl + requestPath)
-                : URI.create(baseUrl + requestPath + "?" + rawQuery);
+        String upstreamPath = binding.upstreamPath(requestPath);
+        String pathAndQuery = (rawQuery == null || rawQuery.isBlank())
+                ? upstreamPath
+                : upstreamPath + "?" + rawQuery;
+        // Ключ coalescing/кэша не зависит от выбранного инстанса.
+        URI logicalUri = URI.create("//" + route.getId() + pathAndQuery);
 
         HttpMethod method;
         try {
@@ -100,36 +131,221 @@ public class ProxyController {
         }
 
         HttpHeaders headers = copyRequestHeaders(request);
+        if (streams(method, request)) {
+            // Тело запроса и ответа не материализуем: копируем между сервлетными
+            // потоками и upstream фиксированными кусками, ответ пишем сами.
+            addPrincipal(request, headers);
+            Integer status;
+            try {
+                status = upstreamInvoker.invokeOnce(route, endpoint -> streamExchange(
+                        request, servletResponse, URI.create(endpoint + pathAndQuery), method, headers));
+            } catch (ClientStreamException ex) {
+                throw ex.getCause();
+            }
+            if (status == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            invalidateOnMutation(method, requestPath, status);
+            return null;
+        }
+
         byte[] body = readBody(request);
 
+        if (responseCache.isCacheable(method, requestPath)) {
+            String key = requestKeyFactory.keyFor(method, logicalUri, request);
+            ProxiedResponse cached = responseCache.get(key);
+            if (cached == null) {
+                cached = requestCoalescer.execute(key, () -> {
+                    long generation = responseCache.generation(requestPath);
+                    return responseCache.put(key, requestPath, generation,
+                            exchange(route, pathAndQuery, method, request, headers, body));
+                });
+            }
+            return toResponseEntity(request, cached);
+        }
+
+        ProxiedResponse response;
+        if (requestCoalescer.supports(method)) {
+            String key = requestKeyFactory.keyFor(method, logicalUri, request);
+            response = requestCoalescer.execute(key,
+                    () -> exchange(route, pathAndQuery, method, request, headers, body));
+        } else {
+            response = exchange(route, pathAndQuery, method, request, headers, body);
+        }
+        invalidateOnMutation(method, requestPath, response.getStatus().value());
+        return toResponseEntity(request, response);
+    }
+
+    /**
+     * Потоком идут только запросы с телом не меньше
+     * {@code gateway.proxy.streaming.min-body-size} (или неизвестной длины):
+     * один вызов без повторов, мимо кэша и coalescing'а. GET/HEAD и небольшие
+     * тела остаются на буферизованном пути со всеми этими механизмами.
+     */
+    private boolean streams(HttpMethod method, HttpServletRequest request) {
+        if (!streamingEnabled || HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) {
+            return false;
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+        }
+        return contentLength >= streamingMinBodySize;
+    }
+
+    private void invalidateOnMutation(HttpMethod method, String requestPath, int status) {
+        if (ResponseCache.isMutating(method) && status >= 200 && status < 300) {
+            responseCache.invalidate(requestPath);
+        }
+    }
+
+    private static ResponseEntity<byte[]> toResponseEntity(HttpServletRequest request, ProxiedResponse response) {
+        String etag = response.getHeaders().getETag();
+        if (etag != null && etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.status(response.getStatus()).headers(response.getHeaders()).body(response.getBody());
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String normalizedEtag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*")) {
+                return true;
+            }
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals(normalizedEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ProxiedResponse exchange(Route route, String pathAndQuery, HttpMethod method, HttpServletRequest request,
+            HttpHeaders headers, byte[] body) {
+        // Только для реальных вызовов upstream: попадания в кэш и схлопнутые
+        // запросы не платят за проверку JWT.
+        addPrincipal(request, headers);
+        return upstreamInvoker.exchange(route, method,
+                endpoint -> exchangeOnce(URI.create(endpoint + pathAndQuery), method, headers, body));
+    }
+
+    /**
+     * JWT проверяется здесь один раз; сервисы получают подписанный
+     * {@link InternalPrincipal#HEADER} и не обращаются ни к JJWT, ни к БД
+     * за id/ролью.
+     */
+    private void addPrincipal(HttpServletRequest request, HttpHeaders headers) {
+        String principal = principalResolver.principalHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (principal != null) {
+            headers.set(InternalPrincipal.HEADER, principal);
+        }
+    }
+
+    private ProxiedResponse exchangeOnce(URI targetUri, HttpMethod method, HttpHeaders headers, byte[] body) {
         HttpEntity<byte[]> entity = new HttpEntity<>(body, headers);
 
         try {
             ResponseEntity<byte[]> response = restTemplate.exchange(Objects.requireNonNull(targetUri), method, entity,
                     byte[].class);
             HttpHeaders responseHeaders = filterHopByHopHeaders(response.getHeaders());
-            return ResponseEntity.status(response.getStatusCode()).headers(responseHeaders).body(response.getBody());
+            return new ProxiedResponse(response.getStatusCode(), responseHeaders, response.getBody());
         } catch (HttpStatusCodeException ex) {
             HttpHeaders responseHeaders = ex.getResponseHeaders() != null ? ex.getResponseHeaders() : new HttpHeaders();
             HttpHeaders filteredHeaders = filterHopByHopHeaders(responseHeaders);
-            return ResponseEntity.status(ex.getStatusCode()).headers(filteredHeaders)
-                    .body(ex.getResponseBodyAsByteArray());
+            return new ProxiedResponse(ex.getStatusCode(), filteredHeaders, ex.getResponseBodyAsByteArray());
+        }
+    }
+
+    /**
+     * Ошибки сервлетных потоков оборачиваются в {@link ClientStreamException},
+     * чтобы обрыв со стороны клиента не считался отказом инстанса.
+     */
+    private int streamExchange(HttpServletRequest request, HttpServletResponse response, URI targetUri,
+            HttpMethod method, HttpHeaders headers) {
+        Integer status;
+        try {
+            status = restTemplate.execute(targetUri, method, upstreamRequest -> {
+                upstreamRequest.getHeaders().putAll(headers);
+                if (!hasBody(request)) {
+                    return;
+                }
+                long contentLength = request.getContentLengthLong();
+                if (contentLength > 0) {
+                    upstreamRequest.getHeaders().setContentLength(contentLength);
+                }
+                if (upstreamRequest instanceof StreamingHttpOutputMessage streaming) {
+                    streaming.setBody(out -> copyFromClient(request, out));
+                } else {
+                    copyFromClient(request, upstreamRequest.getBody());
+                }
+            }, upstreamResponse -> {
+                response.setStatus(upstreamResponse.getStatusCode().value());
+                HttpHeaders responseHeaders = filterHopByHopHeaders(upstreamResponse.getHeaders());
+                responseHeaders.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+                copyToClient(upstreamResponse.getBody(), response);
+                return upstreamResponse.getStatusCode().value();
+            });
+        } catch (ResourceAccessException ex) {
+            // Тело запроса пишется внутри HTTP-клиента, и наша ошибка приходит обёрнутой.
+            for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof ClientStreamException clientError) {
+                    throw clientError;
+                }
+            }
+            throw ex;
+        }
+        return status != null ? status : response.getStatus();
+    }
+
+    private void copyFromClient(HttpServletRequest request, OutputStream upstream) throws IOException {
+        InputStream in;
+        try {
+            in = request.getInputStream();
+        } catch (IOException ex) {
+            throw new ClientStreamException(ex);
+        }
+        byte[] buffer = new byte[streamingBufferSize];
+        int read;
+        while ((read = readFromClient(in, buffer)) != -1) {
+            upstream.write(buffer, 0, read);
         }
+        upstream.flush();
     }
 
-    private String resolveBaseUrl(String path) {
-        if (path.startsWith("/auth"))
-            return authBaseUrl;
-        if (path.startsWith("/users") || path.startsWith("/internal/users"))
-            return userBaseUrl;
-        if (path.startsWith("/events"))
-            return eventBaseUrl;
-        if (path.startsWith("/quizzes"))
-            return quizBaseUrl;
-        if (path.startsWith("/api/geo") || path.startsWith("/geo") || path.startsWith("/api/address")
-                || path.startsWith("/address"))
-            return geoBaseUrl;
-        return null;
+    private static int readFromClient(InputStream in, byte[] buffer) {
+        try {
+            return in.read(buffer);
+        } catch (IOException ex) {
+            throw new ClientStreamException(ex);
+        }
+    }
+
+    private void copyToClient(InputStream upstream, HttpServletResponse response) throws IOException {
+        byte[] buffer = new byte[streamingBufferSize];
+        int read;
+        while ((read = upstream.read(buffer)) != -1) {
+            try {
+                response.getOutputStream().write(buffer, 0, read);
+            } catch (IOException ex) {
+                throw new ClientStreamException(ex);
+            }
+        }
+        try {
+            response.flushBuffer();
+        } catch (IOException ex) {
+            throw new ClientStreamException(ex);
+        }
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
     }
 
     private static HttpHeaders copyRequestHeaders(HttpServletRequest request) {
@@ -143,7 +359,7 @@ public class ProxyController {
         while (headerNames.hasMoreElements()) {
             String headerName = headerNames.nextElement();
             String lower = headerName.toLowerCase(Locale.ROOT);
-            if (HOP_BY_HOP_HEADERS.contains(lower)) {
+            if (HOP_BY_HOP_HEADERS.contains(lower) || lower.equals(INTERNAL_PRINCIPAL_HEADER)) {
                 continue;
             }
 
@@ -185,12 +401,4 @@ public class ProxyController {
         }
         return StreamUtils.copyToByteArray(request.getInputStream());
     }
-
-    private static String stripTrailingSlash(String url) {
-        if (url == null)
-            return null;
-        if (url.endsWith("/"))
-            return url.substring(0, url.length() - 1);
-        return url;
-    }
 }
@@ -0,0 +1,83 @@
+package back.gateway.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker одного upstream-инстанса (без блокировок).
+ *
+ * <p>
+ * CLOSED: запросы идут, после {@code failureThreshold} отказов подряд
+ * breaker размыкается. OPEN: запросы отклоняются до истечения
+ * {@code openDuration}, затем ровно один вызывающий (CAS) получает пробный
+ * запрос (HALF_OPEN). Успех пробного запроса замыкает breaker, отказ снова
+ * размыкает. {@code failureThreshold <= 0} отключает breaker.
+ */
+public final class CircuitBreaker {
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntilNanos = new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, long openDurationNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+    }
+
+    /**
+     * Разрешён ли запрос. В состоянии OPEN после истечения паузы только
+     * первый вызывающий получает {@code true} и переводит breaker в HALF_OPEN.
+     */
+    public boolean tryAcquire(long nowNanos) {
+        int current = state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == HALF_OPEN || nowNanos - openUntilNanos.get() < 0) {
+            return false;
+        }
+        return state.compareAndSet(OPEN, HALF_OPEN);
+    }
+
+    public boolean isClosed() {
+        return state.get() == CLOSED;
+    }
+
+    public boolean isHalfOpen() {
+        return state.get() == HALF_OPEN;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() != CLOSED) {
+            state.set(CLOSED);
+        }
+    }
+
+    public void onFailure(long nowNanos) {
+        if (failureThreshold <= 0) {
+            return;
+        }
+        if (state.get() == HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            consecutiveFailures.set(0);
+            openUntilNanos.set(nowNanos + openDurationNanos);
+            state.set(OPEN);
+        }
+    }
+
+    /**
+     * Пробный запрос прерван без результата (например, проиграл hedge):
+     * следующий вызывающий сможет сразу отправить новый пробный запрос.
+     */
+    public void onAbandoned(long nowNanos) {
+        if (state.get() == HALF_OPEN) {
+            openUntilNanos.set(nowNanos);
+            state.compareAndSet(HALF_OPEN, OPEN);
+        }
+    }
+}
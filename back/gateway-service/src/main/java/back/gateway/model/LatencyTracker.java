@@ -0,0 +1,54 @@
+package back.gateway.model;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Скользящее окно последних задержек маршрута для оценки p95.
+ *
+ * <p>
+ * Запись — один {@code getAndIncrement} и запись в кольцевой буфер. p95
+ * пересчитывается не чаще раза в секунду тем потоком, который выиграл CAS;
+ * остальные читают закэшированное значение.
+ */
+public final class LatencyTracker {
+    private static final int WINDOW = 512;
+    private static final int MIN_SAMPLES = 20;
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong nextRefreshNanos = new AtomicLong(System.nanoTime());
+    private volatile long p95Nanos = -1;
+
+    public void record(long latencyNanos) {
+        long index = recorded.getAndIncrement();
+        samples.set((int) (index % WINDOW), latencyNanos);
+    }
+
+    /**
+     * @return p95 в наносекундах или {@code -1}, пока выборка слишком мала
+     */
+    public long p95(long nowNanos) {
+        long next = nextRefreshNanos.get();
+        if (nowNanos - next >= 0 && nextRefreshNanos.compareAndSet(next, nowNanos + REFRESH_NANOS)) {
+            p95Nanos = compute();
+        }
+        return p95Nanos;
+    }
+
+    private long compute() {
+        int size = (int) Math.min(recorded.get(), WINDOW);
+        if (size < MIN_SAMPLES) {
+            return -1;
+        }
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        return copy[(int) Math.ceil(size * 0.95) - 1];
+    }
+}
@@ -0,0 +1,33 @@
+package back.gateway.model;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Полностью прочитанный ответ upstream-сервиса с уже отфильтрованными
+ * hop-by-hop заголовками. Экземпляр разделяется между несколькими клиентами
+ * (coalescing), поэтому тело и заголовки считаются неизменяемыми.
+ */
+public final class ProxiedResponse {
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    public ProxiedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body != null ? body : new byte[0];
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,47 @@
+package back.gateway.model;
+
+import java.time.Duration;
+
+/**
+ * Настройки устойчивости маршрута: circuit breaker инстансов и hedging GET.
+ */
+public final class ResiliencePolicy {
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final boolean hedgeEnabled;
+    private final Duration hedgeMinDelay;
+    private final Duration hedgeMaxDelay;
+
+    public ResiliencePolicy(int failureThreshold, Duration openDuration, boolean hedgeEnabled,
+            Duration hedgeMinDelay, Duration hedgeMaxDelay) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.hedgeMaxDelay = hedgeMaxDelay;
+    }
+
+    public static ResiliencePolicy defaults() {
+        return new ResiliencePolicy(5, Duration.ofSeconds(10), false, Duration.ofMillis(10), Duration.ofSeconds(1));
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public Duration getHedgeMinDelay() {
+        return hedgeMinDelay;
+    }
+
+    public Duration getHedgeMaxDelay() {
+        return hedgeMaxDelay;
+    }
+}
@@ -0,0 +1,206 @@
+package back.gateway.model;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Скомпилированный маршрут: набор upstream-инстансов и настройки вызова.
+ */
+public final class Route {
+    private final String id;
+    private final List<String> endpoints;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final int retries;
+    private final int stripPrefix;
+    private final String prefixRewrite;
+    private final long slowStartNanos;
+    private final String healthPath;
+    private final Upstream[] upstreams;
+    private final ResiliencePolicy policy;
+    private final LatencyTracker latency = new LatencyTracker();
+
+    public Route(String id, List<String> endpoints, Duration connectTimeout, Duration readTimeout, int retries,
+            int stripPrefix, String prefixRewrite, Duration slowStart, String healthPath, ResiliencePolicy policy) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Route '" + id + "' has no upstream uris");
+        }
+        this.id = id;
+        this.endpoints = endpoints.stream().map(Route::stripTrailingSlash).toList();
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.retries = Math.max(retries, 0);
+        this.stripPrefix = Math.max(stripPrefix, 0);
+        this.prefixRewrite = prefixRewrite;
+        this.slowStartNanos = slowStart != null ? slowStart.toNanos() : 0;
+        this.healthPath = healthPath != null && !healthPath.isBlank() ? healthPath : "/";
+        this.policy = policy != null ? policy : ResiliencePolicy.defaults();
+        long openDurationNanos = this.policy.getOpenDuration().toNanos();
+        this.upstreams = this.endpoints.stream()
+                .map(uri -> new Upstream(uri, new CircuitBreaker(this.policy.getFailureThreshold(), openDurationNanos)))
+                .toArray(Upstream[]::new);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public String getHealthPath() {
+        return healthPath;
+    }
+
+    public List<Upstream> getUpstreams() {
+        return List.of(upstreams);
+    }
+
+    public ResiliencePolicy getPolicy() {
+        return policy;
+    }
+
+    public LatencyTracker getLatency() {
+        return latency;
+    }
+
+    /**
+     * Задержка перед hedge-запросом: p95 маршрута в пределах
+     * [hedge-min-delay, hedge-max-delay].
+     *
+     * @return наносекунды или {@code -1}, если hedging выключен или выборка мала
+     */
+    public long hedgeDelayNanos(long nowNanos) {
+        if (!policy.isHedgeEnabled() || upstreams.length < 2) {
+            return -1;
+        }
+        long p95 = latency.p95(nowNanos);
+        if (p95 < 0) {
+            return -1;
+        }
+        return Math.min(Math.max(p95, policy.getHedgeMinDelay().toNanos()), policy.getHedgeMaxDelay().toNanos());
+    }
+
+    /**
+     * Power-of-two-choices: из двух случайных доступных инстансов берётся тот,
+     * у которого меньше запросов в полёте с поправкой на вес slow-start.
+     * Инстанс, получивший пробный запрос полуоткрытого breaker'а, выбирается
+     * сразу. Если по health-check здоровых не осталось, пробуется наименее
+     * загруженный из инстансов с замкнутым breaker'ом.
+     *
+     * @param exclude инстанс предыдущей неудачной попытки (может быть {@code null})
+     * @return инстанс или {@code null}, если все breaker'ы разомкнуты
+     */
+    public Upstream choose(Upstream exclude) {
+        long now = System.nanoTime();
+        int count = upstreams.length;
+        if (count == 1) {
+            Upstream only = upstreams[0];
+            return only.getCircuitBreaker().tryAcquire(now) ? only : null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(count);
+        int j = random.nextInt(count - 1);
+        if (j >= i) {
+            j++;
+        }
+        Upstream first = upstreams[i];
+        boolean firstUsable = usable(first, exclude, now);
+        if (firstUsable && first.getCircuitBreaker().isHalfOpen()) {
+            return first;
+        }
+        Upstream second = upstreams[j];
+        boolean secondUsable = usable(second, exclude, now);
+        if (secondUsable && second.getCircuitBreaker().isHalfOpen()) {
+            return second;
+        }
+        if (firstUsable && secondUsable) {
+            return load(first, now) <= load(second, now) ? first : second;
+        }
+        if (firstUsable) {
+            return first;
+        }
+        if (secondUsable) {
+            return second;
+        }
+        Upstream healthy = leastLoaded(exclude, now, true);
+        if (healthy != null) {
+            return healthy;
+        }
+        Upstream any = leastLoaded(exclude, now, false);
+        if (any != null) {
+            return any;
+        }
+        return exclude != null && exclude.getCircuitBreaker().isClosed() ? exclude : null;
+    }
+
+    private static boolean usable(Upstream upstream, Upstream exclude, long now) {
+        return upstream != exclude && upstream.isHealthy() && upstream.getCircuitBreaker().tryAcquire(now);
+    }
+
+    private Upstream leastLoaded(Upstream exclude, long now, boolean healthyOnly) {
+        Upstream best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (Upstream upstream : upstreams) {
+            if (upstream == exclude || !upstream.getCircuitBreaker().isClosed()
+                    || (healthyOnly && !upstream.isHealthy())) {
+                continue;
+            }
+            double load = load(upstream, now);
+            if (load < bestLoad) {
+                best = upstream;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    private double load(Upstream upstream, long now) {
+        return (upstream.getOutstanding() + 1) / upstream.weight(now, slowStartNanos);
+    }
+
+    /**
+     * Путь для upstream с учётом правил перезаписи.
+     *
+     * @param path          исходный путь запроса
+     * @param matchedPrefix префикс, по которому выбран маршрут
+     */
+    public String rewritePath(String path, String matchedPrefix) {
+        if (prefixRewrite != null) {
+            return prefixRewrite + path.substring(matchedPrefix.length());
+        }
+        if (stripPrefix == 0) {
+            return path;
+        }
+        int index = 0;
+        for (int i = 0; i < stripPrefix; i++) {
+            int next = path.indexOf('/', index + 1);
+            if (next < 0) {
+                return "/";
+            }
+            index = next;
+        }
+        return path.substring(index);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        String trimmed = url.trim();
+        if (trimmed.endsWith("/"))
+            return trimmed.substring(0, trimmed.length() - 1);
+        return trimmed;
+    }
+}
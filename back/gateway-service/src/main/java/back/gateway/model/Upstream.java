@@ -0,0 +1,100 @@
+package back.gateway.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Инстанс upstream внутри маршрута: число запросов в полёте, состояние
+ * health-check, момент (ре)admission для slow-start и circuit breaker.
+ *
+ * <p>
+ * Всё состояние — атомики и volatile-поля, балансировщик читает их без
+ * блокировок.
+ */
+public final class Upstream {
+    private final String uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveSuccesses = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile boolean warmingUp;
+    private volatile long admittedAtNanos;
+    private final CircuitBreaker circuitBreaker;
+
+    public Upstream(String uri, CircuitBreaker circuitBreaker) {
+        this.uri = uri;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    public void release() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * Вес инстанса в диапазоне (0, 1]: после (ре)admission растёт линейно
+     * в течение {@code slowStartNanos}, чтобы холодный инстанс не получил
+     * сразу полную долю трафика. При старте gateway все инстансы равноправны
+     * и slow-start не применяется.
+     */
+    public double weight(long nowNanos, long slowStartNanos) {
+        if (!warmingUp || slowStartNanos <= 0) {
+            return 1.0;
+        }
+        long elapsed = nowNanos - admittedAtNanos;
+        if (elapsed >= slowStartNanos) {
+            warmingUp = false;
+            return 1.0;
+        }
+        return Math.max(0.1, (double) Math.max(elapsed, 0) / slowStartNanos);
+    }
+
+    /**
+     * Учитывает результат активной проверки.
+     *
+     * @return {@code true}, если состояние инстанса изменилось
+     */
+    public boolean recordProbe(boolean success, int healthyThreshold, int unhealthyThreshold) {
+        if (success) {
+            consecutiveFailures.set(0);
+            if (!healthy && consecutiveSuccesses.incrementAndGet() >= healthyThreshold) {
+                consecutiveSuccesses.set(0);
+                admittedAtNanos = System.nanoTime();
+                warmingUp = true;
+                healthy = true;
+                return true;
+            }
+            return false;
+        }
+        consecutiveSuccesses.set(0);
+        if (healthy && consecutiveFailures.incrementAndGet() >= unhealthyThreshold) {
+            consecutiveFailures.set(0);
+            healthy = false;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return uri;
+    }
+}
@@ -0,0 +1,16 @@
+package back.gateway.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Ошибка ввода-вывода на стороне клиента в потоковом режиме: клиент оборвал
+ * загрузку ответа или прислал битое тело запроса. Инстанс upstream в этом не
+ * виноват, поэтому {@link UpstreamInvoker} не считает её отказом breaker'а.
+ */
+public class ClientStreamException extends UncheckedIOException {
+
+    public ClientStreamException(IOException cause) {
+        super(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,133 @@
+package back.gateway.service;
+
+import back.gateway.util.InternalPrincipal;
+import back.gateway.util.JwtTokenUtil;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Проверяет JWT один раз на входе и строит подписанный заголовок
+ * {@link InternalPrincipal#HEADER} для сервисов.
+ *
+ * <p>
+ * id и роль пользователя берутся из user-service
+ * ({@code /internal/users/by-email}) и кэшируются по email на
+ * {@code gateway.principal.cache-ttl}, так что повторные запросы того же
+ * пользователя не доходят до Postgres. Если секрет не задан, токен невалиден
+ * или пользователь не найден, заголовок не добавляется и сервисы проверяют
+ * токен сами, как раньше.
+ */
+@Service
+public class PrincipalResolver {
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalResolver.class);
+    private static final int MAX_CACHE_ENTRIES = 10_000;
+
+    /** Нужная gateway часть ответа {@code /internal/users/by-email}. */
+    record UserRef(Integer id, String role) {
+    }
+
+    private static final class CacheEntry {
+        final long expiresAt;
+        final int id;
+        final String role;
+
+        CacheEntry(long expiresAt, int id, String role) {
+            this.expiresAt = expiresAt;
+            this.id = id;
+            this.role = role;
+        }
+    }
+
+    private final ConcurrentHashMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    private final RestTemplate restTemplate;
+    private final JwtTokenUtil jwtTokenUtil;
+    private final byte[] secret;
+    private final String userServiceUrl;
+    private final long cacheTtlMs;
+    private final long headerTtlSeconds;
+
+    public PrincipalResolver(
+            RestTemplate restTemplate,
+            JwtTokenUtil jwtTokenUtil,
+            @Value("${internal.principal.secret:}") String secret,
+            @Value("${gateway.principal.user-service-url:${services.user.base-url:http://localhost:8082}}") String userServiceUrl,
+            @Value("${gateway.principal.cache-ttl:60s}") Duration cacheTtl,
+            @Value("${gateway.principal.header-ttl:30s}") Duration headerTtl) {
+        this.restTemplate = restTemplate;
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        // services.user.base-url может содержать список инстансов.
+        this.userServiceUrl = userServiceUrl.split(",")[0].trim();
+        this.cacheTtlMs = cacheTtl.toMillis();
+        this.headerTtlSeconds = headerTtl.toSeconds();
+    }
+
+    /**
+     * @param authorization значение заголовка Authorization (может быть {@code null})
+     * @return значение {@link InternalPrincipal#HEADER} или {@code null}
+     */
+    public String principalHeader(String authorization) {
+        if (secret.length == 0 || authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String email = jwtTokenUtil.getEmailFromValidToken(authorization.substring(7));
+        if (email == null) {
+            return null;
+        }
+        String normalizedEmail = email.trim().toLowerCase();
+        CacheEntry entry = lookup(normalizedEmail);
+        if (entry == null) {
+            return null;
+        }
+        long expiresAt = System.currentTimeMillis() / 1000 + headerTtlSeconds;
+        return new InternalPrincipal(entry.id, normalizedEmail, entry.role, expiresAt).encode(secret);
+    }
+
+    private CacheEntry lookup(String email) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = cache.get(email);
+        if (entry != null && now <= entry.expiresAt) {
+            return entry;
+        }
+
+        URI uri = UriComponentsBuilder.fromHttpUrl(userServiceUrl)
+                .path("/internal/users/by-email")
+                .queryParam("email", "{email}")
+                .encode()
+                .buildAndExpand(email)
+                .toUri();
+        UserRef user;
+        try {
+            ResponseEntity<UserRef> response = restTemplate.getForEntity(uri, UserRef.class);
+            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                cache.remove(email);
+                return null;
+            }
+            user = response.getBody();
+        } catch (RestClientException ex) {
+            logger.warn("Failed to resolve principal for {}", email, ex);
+            return null;
+        }
+        if (user.id() == null || user.role() == null) {
+            return null;
+        }
+
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            cache.clear();
+        }
+        CacheEntry fresh = new CacheEntry(now + cacheTtlMs, user.id(), user.role());
+        cache.put(email, fresh);
+        return fresh;
+    }
+}
@@ -0,0 +1,95 @@
+package back.gateway.service;
+
+import back.gateway.model.ProxiedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-flight для идемпотентных GET: одновременные одинаковые запросы
+ * (см. {@link RequestKeyFactory}) схлопываются в один вызов upstream, ответ
+ * раздаётся всем ожидающим.
+ */
+@Service
+public class RequestCoalescer {
+    private final ConcurrentHashMap<String, CompletableFuture<ProxiedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    private final Counter leaderRequests;
+    private final Counter collapsedRequests;
+
+    public RequestCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.coalescing.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+
+        this.leaderRequests = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "leader")
+                .register(meterRegistry);
+        this.collapsedRequests = Counter.builder("gateway.coalescing.requests")
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+    }
+
+    /** Gauge'и держат ссылку на бин, поэтому регистрируются после конструктора. */
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("gateway.coalescing.collapse.ratio", this, RequestCoalescer::collapseRatio)
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    public boolean supports(HttpMethod method) {
+        return enabled && HttpMethod.GET.equals(method);
+    }
+
+    public ProxiedResponse execute(String key, Supplier<ProxiedResponse> upstreamCall) {
+        CompletableFuture<ProxiedResponse> leader = new CompletableFuture<>();
+        CompletableFuture<ProxiedResponse> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            collapsedRequests.increment();
+            return await(existing);
+        }
+
+        leaderRequests.increment();
+        try {
+            ProxiedResponse response = upstreamCall.get();
+            leader.complete(response);
+            return response;
+        } catch (RuntimeException | Error ex) {
+            leader.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private double collapseRatio() {
+        double collapsed = collapsedRequests.count();
+        double total = collapsed + leaderRequests.count();
+        return total == 0 ? 0.0 : collapsed / total;
+    }
+
+    private static ProxiedResponse await(CompletableFuture<ProxiedResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package back.gateway.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Ключ идентичности запроса для coalescing и кэша ответов.
+ */
+@Component
+public class RequestKeyFactory {
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final List<String> keyHeaders;
+    private final List<String> publicPaths;
+
+    public RequestKeyFactory(
+            @Value("${gateway.request-key.headers:Accept,Accept-Language}") List<String> keyHeaders,
+            @Value("${gateway.request-key.public-paths:/events,/events/*,/quizzes,/api/geo/**,/geo/**}") List<String> publicPaths) {
+        this.keyHeaders = trimmed(keyHeaders);
+        this.publicPaths = trimmed(publicPaths);
+    }
+
+    /**
+     * Ключ: метод, полный URI (с query) и значения заголовков из
+     * {@code gateway.request-key.headers}. Для путей вне
+     * {@code gateway.request-key.public-paths} в ключ добавляется отпечаток
+     * Authorization/Cookie, чтобы ответы не утекали между пользователями.
+     */
+    public String keyFor(HttpMethod method, URI targetUri, HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(128)
+                .append(method.name()).append(' ').append(targetUri);
+        for (String header : keyHeaders) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                key.append('\n').append(header).append(':').append(value);
+            }
+        }
+        if (!isPublic(request.getRequestURI())) {
+            key.append("\nprincipal:").append(principalFingerprint(request));
+        }
+        return key.toString();
+    }
+
+    public boolean isPublic(String path) {
+        for (String pattern : publicPaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String principalFingerprint(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String cookie = request.getHeader(HttpHeaders.COOKIE);
+        if (authorization == null && cookie == null) {
+            return "anonymous";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (authorization != null) {
+                digest.update(authorization.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            if (cookie != null) {
+                digest.update(cookie.getBytes(StandardCharsets.UTF_8));
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    static List<String> trimmed(List<String> values) {
+        return values.stream()
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+}
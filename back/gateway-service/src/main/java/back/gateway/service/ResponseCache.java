@@ -0,0 +1,304 @@
+package back.gateway.service;
+
+import back.gateway.model.ProxiedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * HTTP-кэш публичных чтений в gateway.
+ *
+ * <p>
+ * TTL задаётся по маршруту ({@code gateway.cache.routes=/events=30,...}, секунды),
+ * память ограничена суммарным размером записей ({@code gateway.cache.max-bytes}),
+ * вытеснение LRU. Каждой записи назначается ETag, так что {@code If-None-Match}
+ * обслуживается ответом 304 без обращения к upstream. Изменяющие запросы
+ * (POST/PUT/PATCH/DELETE) инвалидируют все записи того же корневого префикса
+ * ({@code /events/5/registrations} сбрасывает всё под {@code /events}).
+ *
+ * <p>
+ * TTL маршрута — явное решение, что ответ публичный, поэтому он важнее
+ * {@code no-store}: Spring Security в сервисах ставит
+ * {@code no-cache, no-store, max-age=0, must-revalidate} на каждый ответ.
+ * Такой заголовок в сохранённом ответе заменяется на {@code no-cache}, чтобы
+ * клиент перепроверял ответ по ETag. {@code private} от upstream соблюдается,
+ * ответы с {@code Set-Cookie} не кэшируются.
+ *
+ * <p>
+ * У каждого корневого префикса есть поколение, которое растёт при
+ * инвалидации. Его снимают до вызова upstream ({@link #generation(String)}) и
+ * передают в {@link #put}: ответ, прочитанный до изменения, не попадает в кэш
+ * после инвалидации.
+ */
+@Service
+public class ResponseCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private static final class CacheEntry {
+        final String path;
+        final long expiresAt;
+        final long sizeBytes;
+        final ProxiedResponse response;
+
+        CacheEntry(String path, long expiresAt, long sizeBytes, ProxiedResponse response) {
+            this.path = path;
+            this.expiresAt = expiresAt;
+            this.sizeBytes = sizeBytes;
+            this.response = response;
+        }
+    }
+
+    private static final class RouteTtl {
+        final String pattern;
+        final long ttlMs;
+
+        RouteTtl(String pattern, long ttlMs) {
+            this.pattern = pattern;
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ReentrantLock lock = new ReentrantLock();
+    // accessOrder=true: итерация от давно не использованных к свежим (LRU).
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // Поколения корневых префиксов; префиксов столько же, сколько маршрутов.
+    private final HashMap<String, Long> generations = new HashMap<>();
+    private long totalBytes;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final List<RouteTtl> routes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.cache.enabled:true}") boolean enabled,
+            @Value("${gateway.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${gateway.cache.routes:/events=10,/events/*=30,/quizzes=30}") List<String> routes) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.routes = parseRoutes(routes);
+
+        this.hits = Counter.builder("gateway.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("gateway.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("gateway.cache.evictions").register(meterRegistry);
+    }
+
+    /** Gauge держит ссылку на бин, поэтому регистрируется после конструктора. */
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("gateway.cache.size.bytes", this, cache -> cache.totalBytes).register(meterRegistry);
+    }
+
+    public boolean isCacheable(HttpMethod method, String path) {
+        return enabled && HttpMethod.GET.equals(method) && ttlFor(path) > 0;
+    }
+
+    public static boolean isMutating(HttpMethod method) {
+        return HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method)
+                || HttpMethod.PATCH.equals(method) || HttpMethod.DELETE.equals(method);
+    }
+
+    public ProxiedResponse get(String key) {
+        lock.lock();
+        try {
+            CacheEntry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (System.currentTimeMillis() > entry.expiresAt) {
+                removeEntry(key, entry);
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Текущее поколение префикса пути; снимается до вызова upstream. */
+    public long generation(String path) {
+        String prefix = rootPrefix(path);
+        lock.lock();
+        try {
+            return generations.getOrDefault(prefix, 0L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Кэширует успешный ответ и возвращает его версию с ETag. Ответы, которые
+     * кэшировать нельзя (не 200, {@code private}, с {@code Set-Cookie}, больше
+     * лимита), возвращаются без изменений.
+     *
+     * @param generation {@link #generation(String)} до вызова upstream; если с
+     *                   тех пор префикс инвалидирован, ответ не сохраняется
+     */
+    public ProxiedResponse put(String key, String path, long generation, ProxiedResponse response) {
+        if (!HttpStatus.OK.equals(response.getStatus()) || isPrivate(response.getHeaders())
+                || response.getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+            return response;
+        }
+
+        ProxiedResponse tagged = withCacheHeaders(response);
+        long size = estimateSize(key, tagged);
+        if (size > maxBytes) {
+            return tagged;
+        }
+
+        CacheEntry entry = new CacheEntry(path, System.currentTimeMillis() + ttlFor(path), size, tagged);
+        lock.lock();
+        try {
+            if (generations.getOrDefault(rootPrefix(path), 0L) != generation) {
+                return tagged;
+            }
+            CacheEntry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.sizeBytes;
+            }
+            totalBytes += size;
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+        return tagged;
+    }
+
+    public void invalidate(String mutatedPath) {
+        String prefix = rootPrefix(mutatedPath);
+        lock.lock();
+        try {
+            generations.merge(prefix, 1L, Long::sum);
+            Iterator<Map.Entry<String, CacheEntry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                CacheEntry entry = it.next().getValue();
+                if (entry.path.equals(prefix) || entry.path.startsWith(prefix + "/")) {
+                    totalBytes -= entry.sizeBytes;
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, CacheEntry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().getValue().sizeBytes;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private void removeEntry(String key, CacheEntry entry) {
+        if (entries.remove(key, entry)) {
+            totalBytes -= entry.sizeBytes;
+        }
+    }
+
+    private long ttlFor(String path) {
+        for (RouteTtl route : routes) {
+            if (pathMatcher.match(route.pattern, path)) {
+                return route.ttlMs;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isPrivate(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains("private");
+    }
+
+    private static boolean isNoStore(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains("no-store");
+    }
+
+    /** ETag и, вместо {@code no-store}, {@code no-cache} (без Pragma/Expires). */
+    private static ProxiedResponse withCacheHeaders(ProxiedResponse response) {
+        boolean noStore = isNoStore(response.getHeaders());
+        if (response.getHeaders().getETag() != null && !noStore) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        if (headers.getETag() == null) {
+            headers.setETag("\"" + digest(response.getBody()) + "\"");
+        }
+        if (noStore) {
+            headers.setCacheControl("no-cache");
+            headers.remove(HttpHeaders.PRAGMA);
+            headers.remove(HttpHeaders.EXPIRES);
+        }
+        return new ProxiedResponse(response.getStatus(), headers, response.getBody());
+    }
+
+    private static long estimateSize(String key, ProxiedResponse response) {
+        long size = ENTRY_OVERHEAD_BYTES + key.length() * 2L + response.getBody().length;
+        for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            size += header.getKey().length() * 2L;
+            for (String value : header.getValue()) {
+                size += value.length() * 2L;
+            }
+        }
+        return size;
+    }
+
+    static String rootPrefix(String path) {
+        int next = path.indexOf('/', 1);
+        return next < 0 ? path : path.substring(0, next);
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static List<RouteTtl> parseRoutes(List<String> routes) {
+        List<RouteTtl> parsed = new ArrayList<>();
+        for (String raw : routes) {
+            String route = raw.trim();
+            int eq = route.lastIndexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            long ttlSeconds = Long.parseLong(route.substring(eq + 1).trim());
+            parsed.add(new RouteTtl(route.substring(0, eq).trim(), ttlSeconds * 1000L));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,83 @@
+package back.gateway.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Глобальный бюджет повторов и hedge-запросов.
+ *
+ * <p>
+ * Каждый исходный запрос кладёт в бюджет {@code ratio} токена, каждый
+ * повтор забирает один; дополнительно бюджет пополняется на
+ * {@code min-per-second} токенов в секунду, чтобы при малом трафике повторы
+ * оставались возможны. Так повторы не могут добавить к нагрузке больше
+ * {@code ratio} даже при массовых отказах upstream. Баланс хранится в
+ * тысячных долях токена в {@link AtomicLong}.
+ */
+@Service
+public class RetryBudget {
+    private static final long TOKEN = 1000;
+
+    private final long depositPerRequest;
+    private final long refillPerSecond;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefillNanos = new AtomicLong(System.nanoTime());
+
+    private final Counter exhausted;
+
+    public RetryBudget(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.retry-budget.ratio:0.2}") double ratio,
+            @Value("${gateway.retry-budget.min-per-second:10}") int minPerSecond) {
+        this.depositPerRequest = Math.round(Math.max(ratio, 0) * TOKEN);
+        this.refillPerSecond = Math.max(minPerSecond, 0) * TOKEN;
+        this.maxBalance = Math.max(refillPerSecond * 10, TOKEN * 10);
+        this.balance = new AtomicLong(refillPerSecond);
+
+        this.exhausted = Counter.builder("gateway.retry.budget.exhausted")
+                .register(meterRegistry);
+        Gauge.builder("gateway.retry.budget.balance", balance, b -> (double) b.get() / TOKEN)
+                .register(meterRegistry);
+    }
+
+    public void onRequest() {
+        deposit(depositPerRequest);
+    }
+
+    public boolean tryWithdraw() {
+        refill();
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                exhausted.increment();
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long last = lastRefillNanos.get();
+        long elapsed = now - last;
+        if (elapsed < TimeUnit.MILLISECONDS.toNanos(10) || !lastRefillNanos.compareAndSet(last, now)) {
+            return;
+        }
+        long seconds = TimeUnit.SECONDS.toNanos(1);
+        deposit(refillPerSecond * Math.min(elapsed, 10 * seconds) / seconds);
+    }
+
+    private void deposit(long amount) {
+        if (amount > 0) {
+            balance.accumulateAndGet(amount, (current, added) -> Math.min(current + added, maxBalance));
+        }
+    }
+}
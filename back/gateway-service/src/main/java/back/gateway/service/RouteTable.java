@@ -0,0 +1,184 @@
+package back.gateway.service;
+
+import back.gateway.model.Route;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблица маршрутов, скомпилированная в префиксное дерево по символам пути.
+ *
+ * <p>
+ * Поиск идёт один раз по символам пути (O(длина пути)) и ничего не
+ * аллоцирует: дочерние узлы хранятся в отсортированных массивах, результат —
+ * заранее созданный {@link Binding}. Побеждает самый длинный префикс,
+ * совпавший на границе сегмента ({@code /events} подходит для
+ * {@code /events/1}, но не для {@code /eventsfoo}).
+ */
+public final class RouteTable {
+
+    /**
+     * Привязка префикса к маршруту.
+     */
+    public static final class Binding {
+        private final String prefix;
+        private final Route route;
+
+        Binding(String prefix, Route route) {
+            this.prefix = prefix;
+            this.route = route;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public Route getRoute() {
+            return route;
+        }
+
+        public String upstreamPath(String path) {
+            return route.rewritePath(path, prefix);
+        }
+    }
+
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private Binding binding;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node getOrAddChild(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = c;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+    }
+
+    /**
+     * Инстанс маршрута по scheme и порту; хосты — ключи {@code originsByHost}.
+     */
+    private static final class Origin {
+        final String scheme;
+        final int port;
+        final Route route;
+
+        Origin(String scheme, int port, Route route) {
+            this.scheme = scheme;
+            this.port = port;
+            this.route = route;
+        }
+    }
+
+    private final Node root = new Node();
+    private final List<Route> routes;
+    private final Map<String, Origin[]> originsByHost = new HashMap<>();
+
+    /**
+     * @param routes   маршруты
+     * @param prefixes префиксы каждого маршрута (тот же порядок)
+     */
+    public RouteTable(List<Route> routes, List<List<String>> prefixes) {
+        this.routes = List.copyOf(routes);
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            for (String rawPrefix : prefixes.get(i)) {
+                String prefix = normalizePrefix(rawPrefix);
+                Node node = root;
+                for (int c = 0; c < prefix.length(); c++) {
+                    node = node.getOrAddChild(prefix.charAt(c));
+                }
+                if (node.binding != null) {
+                    throw new IllegalArgumentException("Duplicate route prefix '" + prefix + "' in routes '"
+                            + node.binding.route.getId() + "' and '" + route.getId() + "'");
+                }
+                node.binding = new Binding(prefix, route);
+            }
+            for (String endpoint : route.getEndpoints()) {
+                addOrigin(URI.create(endpoint), route);
+            }
+        }
+    }
+
+    public Binding lookup(String path) {
+        Node node = root;
+        Binding best = null;
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            Binding binding = node.binding;
+            if (binding != null && (i + 1 == length || path.charAt(i + 1) == '/' || path.charAt(i) == '/')) {
+                best = binding;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Маршрут, которому принадлежит upstream-инстанс (scheme://host:port).
+     * Используется HTTP-клиентом для выбора таймаутов маршрута; поиск идёт по
+     * уже разобранным полям URI и ничего не аллоцирует.
+     */
+    public Route routeForUpstream(URI uri) {
+        Origin[] origins = originsByHost.get(uri.getHost());
+        if (origins == null) {
+            return null;
+        }
+        for (Origin origin : origins) {
+            if (origin.port == uri.getPort() && origin.scheme.equals(uri.getScheme())) {
+                return origin.route;
+            }
+        }
+        return null;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    /** Первый маршрут с этим инстансом остаётся его владельцем. */
+    private void addOrigin(URI uri, Route route) {
+        Origin[] origins = originsByHost.getOrDefault(uri.getHost(), new Origin[0]);
+        for (Origin origin : origins) {
+            if (origin.port == uri.getPort() && origin.scheme.equals(uri.getScheme())) {
+                return;
+            }
+        }
+        Origin[] extended = Arrays.copyOf(origins, origins.length + 1);
+        extended[origins.length] = new Origin(uri.getScheme(), uri.getPort(), route);
+        originsByHost.put(uri.getHost(), extended);
+    }
+
+    private static String normalizePrefix(String prefix) {
+        String trimmed = prefix.trim();
+        if (!trimmed.startsWith("/")) {
+            trimmed = "/" + trimmed;
+        }
+        if (trimmed.length() > 1 && trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,112 @@
+package back.gateway.service;
+
+import back.gateway.model.Route;
+import back.gateway.model.Upstream;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Активные health-check'и upstream-инстансов.
+ *
+ * <p>
+ * Все инстансы опрашиваются параллельно раз в {@code gateway.health-check.interval}.
+ * Инстанс выводится из балансировки после {@code unhealthy-threshold}
+ * неудачных проверок подряд и возвращается после {@code healthy-threshold}
+ * успешных; возвращённый инстанс проходит slow-start маршрута. Проверка
+ * успешна, если upstream ответил статусом ниже 500 — отдельного health
+ * endpoint'а у сервисов нет, поэтому 401/404 тоже означают «жив».
+ */
+@Service
+public class UpstreamHealthChecker {
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamHealthChecker.class);
+
+    private final RouteTable routeTable;
+    private final HttpClient httpClient;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final int healthyThreshold;
+    private final int unhealthyThreshold;
+
+    public UpstreamHealthChecker(
+            RouteTable routeTable,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.health-check.enabled:true}") boolean enabled,
+            @Value("${gateway.health-check.timeout:1s}") Duration timeout,
+            @Value("${gateway.health-check.healthy-threshold:2}") int healthyThreshold,
+            @Value("${gateway.health-check.unhealthy-threshold:2}") int unhealthyThreshold) {
+        this.routeTable = routeTable;
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.healthyThreshold = Math.max(healthyThreshold, 1);
+        this.unhealthyThreshold = Math.max(unhealthyThreshold, 1);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        for (Route route : routeTable.getRoutes()) {
+            for (Upstream upstream : route.getUpstreams()) {
+                Gauge.builder("gateway.upstream.healthy", upstream, u -> u.isHealthy() ? 1 : 0)
+                        .tag("route", route.getId())
+                        .tag("uri", upstream.getUri())
+                        .register(meterRegistry);
+                Gauge.builder("gateway.upstream.outstanding", upstream, Upstream::getOutstanding)
+                        .tag("route", route.getId())
+                        .tag("uri", upstream.getUri())
+                        .register(meterRegistry);
+                Gauge.builder("gateway.upstream.circuit.open", upstream,
+                        u -> u.getCircuitBreaker().isClosed() ? 0 : 1)
+                        .tag("route", route.getId())
+                        .tag("uri", upstream.getUri())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${gateway.health-check.interval:5000}",
+            fixedDelayString = "${gateway.health-check.interval:5000}")
+    public void probeAll() {
+        if (!enabled) {
+            return;
+        }
+        List<CompletableFuture<Void>> probes = new ArrayList<>();
+        for (Route route : routeTable.getRoutes()) {
+            for (Upstream upstream : route.getUpstreams()) {
+                probes.add(probe(route, upstream));
+            }
+        }
+        CompletableFuture.allOf(probes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    CompletableFuture<Void> probe(Route route, Upstream upstream) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(upstream.getUri() + route.getHealthPath()))
+                .timeout(timeout)
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> error == null && response.statusCode() < 500)
+                .thenAccept(success -> {
+                    if (!upstream.recordProbe(success, healthyThreshold, unhealthyThreshold)) {
+                        return;
+                    }
+                    if (upstream.isHealthy()) {
+                        logger.info("Upstream {} of route {} is back in rotation", upstream.getUri(), route.getId());
+                    } else {
+                        logger.warn("Upstream {} of route {} is ejected", upstream.getUri(), route.getId());
+                    }
+                });
+    }
+}
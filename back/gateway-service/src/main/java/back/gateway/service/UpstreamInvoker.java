@@ -0,0 +1,270 @@
+package back.gateway.service;
+
+import back.gateway.model.CircuitBreaker;
+import back.gateway.model.ProxiedResponse;
+import back.gateway.model.Route;
+import back.gateway.model.Upstream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Вызов upstream-инстансов маршрута с circuit breaker'ами, повторами и
+ * hedging'ом.
+ *
+ * <ul>
+ * <li>каждый вызов учитывается в breaker'е инстанса: I/O-ошибки и ответы
+ * 502/503/504 — отказ; если у маршрута не осталось доступных инстансов,
+ * клиент сразу получает 503 вместо ожидания таймаута;</li>
+ * <li>идемпотентные методы повторяются на другом инстансе (до
+ * {@code retries} раз), каждый повтор оплачивается из {@link RetryBudget};</li>
+ * <li>GET при включённом hedging'е дублируется на второй инстанс, если
+ * первый не ответил за p95 маршрута; побеждает первый успешный ответ,
+ * проигравший запрос прерывается.</li>
+ * </ul>
+ *
+ * <p>
+ * Таймер и счётчики маршрутов регистрируются один раз при создании бина по
+ * {@link RouteTable}, на горячем пути только обновляются.
+ */
+@Service
+public class UpstreamInvoker {
+    private static final List<HttpMethod> IDEMPOTENT_METHODS = List.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+
+    private static final ToIntFunction<ProxiedResponse> STATUS = response -> response.getStatus().value();
+
+    /**
+     * Метрики одного маршрута.
+     */
+    private static final class RouteMeters {
+        final Timer latency;
+        final Counter rejected;
+        final Counter retries;
+        final Counter hedgeFired;
+        final Counter hedgeWon;
+
+        RouteMeters(String routeId, MeterRegistry meterRegistry) {
+            this.latency = Timer.builder("gateway.upstream.latency")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("gateway.upstream.rejected")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.retries = Counter.builder("gateway.upstream.retries")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.hedgeFired = Counter.builder("gateway.hedge.requests")
+                    .tag("route", routeId)
+                    .tag("result", "fired")
+                    .register(meterRegistry);
+            this.hedgeWon = Counter.builder("gateway.hedge.requests")
+                    .tag("route", routeId)
+                    .tag("result", "won")
+                    .register(meterRegistry);
+        }
+    }
+
+    private final RetryBudget retryBudget;
+    private final Map<Route, RouteMeters> meters = new HashMap<>();
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UpstreamInvoker(RetryBudget retryBudget, MeterRegistry meterRegistry, RouteTable routeTable) {
+        this.retryBudget = retryBudget;
+        for (Route route : routeTable.getRoutes()) {
+            meters.put(route, new RouteMeters(route.getId(), meterRegistry));
+        }
+    }
+
+    /**
+     * Буферизованный вызов с повторами и hedging'ом.
+     *
+     * @param call вызов по базовому URI выбранного инстанса
+     */
+    public ProxiedResponse exchange(Route route, HttpMethod method, Function<String, ProxiedResponse> call) {
+        retryBudget.onRequest();
+        boolean idempotent = IDEMPOTENT_METHODS.contains(method);
+        int attemptsLeft = idempotent ? route.getRetries() : 0;
+        Upstream upstream = route.choose(null);
+        if (upstream == null) {
+            return unavailable(route);
+        }
+        while (true) {
+            Upstream attempt = upstream;
+            ProxiedResponse response;
+            try {
+                response = HttpMethod.GET.equals(method)
+                        ? hedged(route, attempt, call)
+                        : invoke(route, attempt, call, STATUS);
+            } catch (ResourceAccessException ex) {
+                upstream = attemptsLeft-- > 0 ? nextAttempt(route, attempt) : null;
+                if (upstream == null) {
+                    throw ex;
+                }
+                continue;
+            }
+            if (!isUpstreamFailure(response.getStatus().value())) {
+                return response;
+            }
+            upstream = attemptsLeft-- > 0 ? nextAttempt(route, attempt) : null;
+            if (upstream == null) {
+                return response;
+            }
+        }
+    }
+
+    /**
+     * Один вызов без повторов (потоковый режим: тело запроса читается один раз).
+     *
+     * @return статус ответа или {@code null}, если доступных инстансов нет
+     */
+    public Integer invokeOnce(Route route, Function<String, Integer> call) {
+        retryBudget.onRequest();
+        Upstream upstream = route.choose(null);
+        if (upstream == null) {
+            meters.get(route).rejected.increment();
+            return null;
+        }
+        return invoke(route, upstream, call, Integer::intValue);
+    }
+
+    private Upstream nextAttempt(Route route, Upstream failed) {
+        if (!retryBudget.tryWithdraw()) {
+            return null;
+        }
+        Upstream next = route.choose(failed);
+        if (next != null) {
+            meters.get(route).retries.increment();
+        }
+        return next;
+    }
+
+    private <T> T invoke(Route route, Upstream upstream, Function<String, T> call, ToIntFunction<T> statusOf) {
+        CircuitBreaker breaker = upstream.getCircuitBreaker();
+        upstream.acquire();
+        long start = System.nanoTime();
+        try {
+            T result = call.apply(upstream.getUri());
+            long now = System.nanoTime();
+            if (isUpstreamFailure(statusOf.applyAsInt(result))) {
+                breaker.onFailure(now);
+            } else {
+                breaker.onSuccess();
+            }
+            route.getLatency().record(now - start);
+            meters.get(route).latency.record(now - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (ClientStreamException ex) {
+            // Отказ клиента: снимаем только пробный запрос полуоткрытого breaker'а.
+            breaker.onAbandoned(System.nanoTime());
+            throw ex;
+        } catch (RuntimeException ex) {
+            // Прерванный проигравший hedge — не отказ инстанса.
+            if (Thread.currentThread().isInterrupted()) {
+                breaker.onAbandoned(System.nanoTime());
+            } else {
+                breaker.onFailure(System.nanoTime());
+            }
+            throw ex;
+        } finally {
+            upstream.release();
+        }
+    }
+
+    private ProxiedResponse hedged(Route route, Upstream primary, Function<String, ProxiedResponse> call) {
+        long delay = route.hedgeDelayNanos(System.nanoTime());
+        if (delay < 0) {
+            return invoke(route, primary, call, STATUS);
+        }
+        CompletableFuture<ProxiedResponse> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean decided = new AtomicBoolean();
+        Future<?> primaryTask = hedgeExecutor.submit(
+                () -> race(route, primary, call, result, pending, decided, false));
+        Future<?> hedgeTask = null;
+        try {
+            try {
+                return result.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                // первый инстанс медленнее p95 — дублируем запрос
+            }
+            if (retryBudget.tryWithdraw()) {
+                Upstream secondary = route.choose(primary);
+                if (secondary != null && secondary != primary) {
+                    pending.incrementAndGet();
+                    meters.get(route).hedgeFired.increment();
+                    hedgeTask = hedgeExecutor.submit(
+                            () -> race(route, secondary, call, result, pending, decided, true));
+                }
+            }
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for upstream");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            primaryTask.cancel(true);
+            if (hedgeTask != null) {
+                hedgeTask.cancel(true);
+            }
+        }
+    }
+
+    private void race(Route route, Upstream upstream, Function<String, ProxiedResponse> call,
+            CompletableFuture<ProxiedResponse> result, AtomicInteger pending, AtomicBoolean decided, boolean hedge) {
+        try {
+            ProxiedResponse response = invoke(route, upstream, call, STATUS);
+            // Ответ-отказ уступает ещё не завершившемуся конкуренту.
+            if (isUpstreamFailure(response.getStatus().value()) && pending.decrementAndGet() > 0) {
+                return;
+            }
+            // Победитель выбирается до complete, чтобы метрика была учтена раньше ответа клиенту.
+            if (!decided.compareAndSet(false, true)) {
+                return;
+            }
+            if (hedge) {
+                meters.get(route).hedgeWon.increment();
+            }
+            result.complete(response);
+        } catch (RuntimeException ex) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private ProxiedResponse unavailable(Route route) {
+        meters.get(route).rejected.increment();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(route.getPolicy().getOpenDuration().toSeconds(), 1)));
+        return new ProxiedResponse(HttpStatus.SERVICE_UNAVAILABLE, headers, null);
+    }
+
+    private static boolean isUpstreamFailure(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+}
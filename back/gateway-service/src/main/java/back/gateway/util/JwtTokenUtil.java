@@ -0,0 +1,36 @@
+package back.gateway.util;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Проверка JWT на gateway. Парсер с ключом строится один раз; ключ — байты
+ * {@code jwt.secret}, как при подписи в auth-service.
+ */
+@Component
+public class JwtTokenUtil {
+    private final JwtParser parser;
+
+    public JwtTokenUtil(@Value("${jwt.secret:}") String jwtSecret) {
+        this.parser = jwtSecret == null || jwtSecret.isBlank()
+                ? null
+                : Jwts.parserBuilder().setSigningKey(jwtSecret.getBytes()).build();
+    }
+
+    /**
+     * @return email (subject) валидного токена или {@code null}
+     */
+    public String getEmailFromValidToken(String token) {
+        if (parser == null || token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return parser.parseClaimsJws(token.trim()).getBody().getSubject();
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
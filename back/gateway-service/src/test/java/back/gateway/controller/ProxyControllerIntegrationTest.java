@@ -1,11 +1,22 @@
 package back.gateway.controller;
 
+import back.gateway.config.RoutingConfig;
+import back.gateway.service.PrincipalResolver;
+import back.gateway.service.RequestCoalescer;
+import back.gateway.service.RequestKeyFactory;
+import back.gateway.service.ResponseCache;
+import back.gateway.service.RetryBudget;
+import back.gateway.service.UpstreamInvoker;
+import back.gateway.util.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,9 +28,12 @@ import java.nio.charset.StandardCharsets;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ProxyController.class, properties = {
@@ -30,6 +44,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         "services.geo.base-url=http://geo-service"
 })
 @AutoConfigureMockMvc(addFilters = false)
+@Import({ RoutingConfig.class, RequestKeyFactory.class, RequestCoalescer.class, ResponseCache.class,
+        RetryBudget.class, UpstreamInvoker.class, PrincipalResolver.class, JwtTokenUtil.class,
+        SimpleMeterRegistry.class })
 class ProxyControllerIntegrationTest {
 
     @Autowired
@@ -47,4 +64,34 @@ class ProxyControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("ok"));
     }
+
+    @Test
+    void shouldCachePublicGetDespiteSpringSecurityNoStoreHeaders() throws Exception {
+        // Заголовки, которые Spring Security по умолчанию ставит на каждый ответ сервиса.
+        HttpHeaders upstreamHeaders = new HttpHeaders();
+        upstreamHeaders.set(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, max-age=0, must-revalidate");
+        upstreamHeaders.set(HttpHeaders.PRAGMA, "no-cache");
+        upstreamHeaders.set(HttpHeaders.EXPIRES, "0");
+        upstreamHeaders.set("X-Content-Type-Options", "nosniff");
+        upstreamHeaders.set("X-Frame-Options", "DENY");
+        upstreamHeaders.set("X-XSS-Protection", "0");
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(new ResponseEntity<>("{\"id\":42}".getBytes(StandardCharsets.UTF_8),
+                        upstreamHeaders, HttpStatus.OK));
+
+        String etag = mockMvc.perform(get("/events/42"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().doesNotExist(HttpHeaders.PRAGMA))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/events/42"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":42}"));
+        mockMvc.perform(get("/events/42").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        verify(restTemplate, times(1))
+                .exchange(any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class));
+    }
 }
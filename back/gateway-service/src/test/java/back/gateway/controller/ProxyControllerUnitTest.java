@@ -1,9 +1,29 @@
 package back.gateway.controller;
 
+import back.gateway.model.Route;
+import back.gateway.service.PrincipalResolver;
+import back.gateway.service.RequestCoalescer;
+import back.gateway.service.RequestKeyFactory;
+import back.gateway.service.ResponseCache;
+import back.gateway.service.RetryBudget;
+import back.gateway.service.RouteTable;
+import back.gateway.service.UpstreamInvoker;
+import back.gateway.util.JwtTokenUtil;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -13,19 +33,101 @@ class ProxyControllerUnitTest {
     @Test
     void proxyShouldReturnNotFoundForUnknownPath() throws Exception {
         RestTemplate restTemplate = mock(RestTemplate.class);
+        RouteTable routes = routes("http://auth-service/", "http://event-service/");
         ProxyController controller = new ProxyController(
                 restTemplate,
-                "http://auth-service/",
-                "http://user-service/",
-                "http://event-service/",
-                "http://quiz-service/",
-                "http://geo-service/");
+                routes,
+                new RequestKeyFactory(List.of("Accept"), List.of("/events")),
+                coalescer(),
+                cache(),
+                invoker(routes),
+                principals(restTemplate),
+                false,
+                8192,
+                65536);
 
         MockHttpServletRequest request = new MockHttpServletRequest("GET", "/unknown/path");
 
-        var response = controller.proxy(request);
+        var response = controller.proxy(request, new MockHttpServletResponse());
 
         assertThat(response.getStatusCode().value()).isEqualTo(404);
         verifyNoInteractions(restTemplate);
     }
+
+    @Test
+    void streamingModeShouldPipeBodiesThroughServletStreams() throws Exception {
+        HttpServer upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/events", exchange -> {
+            byte[] received;
+            try (InputStream in = exchange.getRequestBody()) {
+                received = in.readAllBytes();
+            }
+            exchange.getResponseHeaders().add("X-Upstream", "event-service");
+            exchange.sendResponseHeaders(201, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("echo:".getBytes(StandardCharsets.UTF_8));
+                out.write(received);
+            }
+        });
+        upstream.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+            RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+            RouteTable routes = routes(baseUrl, baseUrl);
+            ProxyController controller = new ProxyController(
+                    restTemplate, routes,
+                    new RequestKeyFactory(List.of(), List.of()), coalescer(), cache(), invoker(routes),
+                    principals(restTemplate), true, 512, 4096);
+
+            byte[] payload = "x".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/events");
+            request.setContent(payload);
+            MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+            var response = controller.proxy(request, servletResponse);
+
+            assertThat(response).isNull();
+            assertThat(servletResponse.getStatus()).isEqualTo(201);
+            assertThat(servletResponse.getHeader("X-Upstream")).isEqualTo("event-service");
+            assertThat(servletResponse.getContentAsString()).isEqualTo("echo:" + "x".repeat(10_000));
+
+            // GET остаётся на буферизованном пути (кэш, coalescing, повторы, hedging).
+            var buffered = controller.proxy(new MockHttpServletRequest("GET", "/events"),
+                    new MockHttpServletResponse());
+            assertThat(buffered).isNotNull();
+            assertThat(buffered.getStatusCode().value()).isEqualTo(201);
+            assertThat(new String(buffered.getBody(), StandardCharsets.UTF_8)).isEqualTo("echo:");
+        } finally {
+            upstream.stop(0);
+        }
+    }
+
+    private static RouteTable routes(String authBaseUrl, String eventBaseUrl) {
+        return new RouteTable(
+                List.of(route("auth", authBaseUrl), route("event", eventBaseUrl)),
+                List.of(List.of("/auth"), List.of("/events")));
+    }
+
+    private static Route route(String id, String baseUrl) {
+        return new Route(id, List.of(baseUrl), Duration.ofSeconds(1), Duration.ofSeconds(5), 0, 0, null,
+                Duration.ZERO, null, null);
+    }
+
+    private static RequestCoalescer coalescer() {
+        return new RequestCoalescer(new SimpleMeterRegistry(), true);
+    }
+
+    private static ResponseCache cache() {
+        return new ResponseCache(new SimpleMeterRegistry(), true, 1024 * 1024, List.of("/events/*=30"));
+    }
+
+    private static UpstreamInvoker invoker(RouteTable routes) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new UpstreamInvoker(new RetryBudget(registry, 0.2, 10), registry, routes);
+    }
+
+    private static PrincipalResolver principals(RestTemplate restTemplate) {
+        return new PrincipalResolver(restTemplate, new JwtTokenUtil("secret"), "", "http://user-service",
+                Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
 }
@@ -0,0 +1,81 @@
+package back.gateway.service;
+
+import back.gateway.util.InternalPrincipal;
+import back.gateway.util.JwtTokenUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PrincipalResolverUnitTest {
+    private static final String JWT_SECRET = "gateway-secret-with-at-least-256-bits!";
+    private static final byte[] PRINCIPAL_SECRET = "internal".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void validTokenShouldYieldSignedPrincipalAndCacheUserLookup() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForEntity(any(URI.class), eq(PrincipalResolver.UserRef.class))).thenReturn(
+                new ResponseEntity<>(new PrincipalResolver.UserRef(42, "organizer"), HttpStatus.OK));
+        PrincipalResolver resolver = resolver(restTemplate);
+        String authorization = "Bearer " + token("Alice+x@example.com", JWT_SECRET);
+
+        String header = resolver.principalHeader(authorization);
+        resolver.principalHeader(authorization);
+
+        InternalPrincipal principal = InternalPrincipal.decode(header, PRINCIPAL_SECRET,
+                System.currentTimeMillis() / 1000);
+        assertThat(principal).isNotNull();
+        assertThat(principal.getId()).isEqualTo(42);
+        assertThat(principal.getEmail()).isEqualTo("alice+x@example.com");
+        assertThat(principal.getRole()).isEqualTo("organizer");
+        verify(restTemplate, times(1)).getForEntity(
+                eq(URI.create("http://user-service/internal/users/by-email?email=alice%2Bx%40example.com")),
+                eq(PrincipalResolver.UserRef.class));
+
+        assertThat(InternalPrincipal.decode(header, "other".getBytes(StandardCharsets.UTF_8),
+                System.currentTimeMillis() / 1000)).isNull();
+        assertThat(InternalPrincipal.decode(header, PRINCIPAL_SECRET,
+                principal.getExpiresAtEpochSecond() + 1)).isNull();
+    }
+
+    @Test
+    void forgedTokenShouldNotProducePrincipal() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        PrincipalResolver resolver = resolver(restTemplate);
+
+        assertThat(resolver.principalHeader("Bearer " + token("admin@example.com", "attacker-secret-with-at-least-256-bits"))).isNull();
+        assertThat(resolver.principalHeader("Basic abc")).isNull();
+        verifyNoInteractions(restTemplate);
+    }
+
+    private static PrincipalResolver resolver(RestTemplate restTemplate) {
+        return new PrincipalResolver(restTemplate, new JwtTokenUtil(JWT_SECRET),
+                new String(PRINCIPAL_SECRET, StandardCharsets.UTF_8), "http://user-service",
+                Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    private static String token(String email, String secret) {
+        return Jwts.builder()
+                .setSubject(email)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+}
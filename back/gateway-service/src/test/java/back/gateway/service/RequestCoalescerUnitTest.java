@@ -0,0 +1,88 @@
+package back.gateway.service;
+
+import back.gateway.model.ProxiedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescerUnitTest {
+
+    @Test
+    void concurrentIdenticalGetsShouldShareOneUpstreamCall() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RequestKeyFactory keyFactory = new RequestKeyFactory(List.of("Accept"), List.of("/events/*"));
+        RequestCoalescer coalescer = new RequestCoalescer(registry, true);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int clients = 8;
+        CountDownLatch started = new CountDownLatch(clients);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<ProxiedResponse>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events/1");
+                    String key = keyFactory.keyFor(HttpMethod.GET, URI.create("http://event-service/events/1"), request);
+                    started.countDown();
+                    return coalescer.execute(key, () -> {
+                        upstreamCalls.incrementAndGet();
+                        awaitQuietly(started);
+                        awaitQuietly(release);
+                        return new ProxiedResponse(HttpStatus.OK, new HttpHeaders(), "event".getBytes());
+                    });
+                }));
+            }
+            started.await(5, TimeUnit.SECONDS);
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<ProxiedResponse> result : results) {
+                assertThat(new String(result.get(5, TimeUnit.SECONDS).getBody())).isEqualTo("event");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(registry.get("gateway.coalescing.requests").tag("result", "collapsed").counter().count())
+                .isEqualTo(clients - 1);
+    }
+
+    @Test
+    void privatePathsShouldBeKeyedPerPrincipal() {
+        RequestKeyFactory keyFactory = new RequestKeyFactory(List.of(), List.of("/events/*"));
+        URI uri = URI.create("http://event-service/events/me/created");
+
+        MockHttpServletRequest alice = new MockHttpServletRequest("GET", "/events/me/created");
+        alice.addHeader("Authorization", "Bearer alice");
+        MockHttpServletRequest bob = new MockHttpServletRequest("GET", "/events/me/created");
+        bob.addHeader("Authorization", "Bearer bob");
+
+        assertThat(keyFactory.keyFor(HttpMethod.GET, uri, alice))
+                .isNotEqualTo(keyFactory.keyFor(HttpMethod.GET, uri, bob));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
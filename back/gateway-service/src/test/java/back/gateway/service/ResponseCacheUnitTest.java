@@ -0,0 +1,78 @@
+package back.gateway.service;
+
+import back.gateway.model.ProxiedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheUnitTest {
+
+    @Test
+    void shouldTagCachedResponsesAndInvalidateRoutePrefixOnMutation() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), true, 1024 * 1024,
+                List.of("/events=10", "/events/*=30"));
+
+        assertThat(cache.isCacheable(HttpMethod.GET, "/events/1")).isTrue();
+        assertThat(cache.isCacheable(HttpMethod.GET, "/users/me")).isFalse();
+
+        ProxiedResponse stored = cache.put("GET /events/1", "/events/1", 0, ok("{\"id\":1}"));
+        assertThat(stored.getHeaders().getETag()).isNotNull();
+        assertThat(cache.get("GET /events/1")).isSameAs(stored);
+
+        cache.invalidate("/events/1/registrations");
+
+        assertThat(cache.get("GET /events/1")).isNull();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesWhenOverBudget() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), true, 1_000, List.of("/events/*=30"));
+
+        cache.put("a", "/events/1", 0, ok("x".repeat(300)));
+        cache.put("b", "/events/2", 0, ok("y".repeat(300)));
+        cache.get("a");
+        cache.put("c", "/events/3", 0, ok("z".repeat(300)));
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void shouldNotStoreResponseReadBeforeInvalidation() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), true, 1024 * 1024, List.of("/events/*=30"));
+
+        long generation = cache.generation("/events/1");
+        cache.invalidate("/events/1");
+        cache.put("GET /events/1", "/events/1", generation, ok("{\"title\":\"old\"}"));
+
+        assertThat(cache.get("GET /events/1")).isNull();
+
+        // Инвалидация другого префикса не мешает.
+        long fresh = cache.generation("/events/1");
+        cache.invalidate("/quizzes/1");
+        cache.put("GET /events/1", "/events/1", fresh, ok("{\"title\":\"new\"}"));
+        assertThat(cache.get("GET /events/1")).isNotNull();
+    }
+
+    @Test
+    void shouldNotStoreResponsesWithSetCookie() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), true, 1024 * 1024, List.of("/events/*=30"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, "SESSION=abc; HttpOnly");
+
+        cache.put("GET /events/1", "/events/1", 0, new ProxiedResponse(HttpStatus.OK, headers, "{}".getBytes()));
+
+        assertThat(cache.get("GET /events/1")).isNull();
+    }
+
+    private static ProxiedResponse ok(String body) {
+        return new ProxiedResponse(HttpStatus.OK, new HttpHeaders(), body.getBytes());
+    }
+}
@@ -0,0 +1,49 @@
+package back.gateway.service;
+
+import back.gateway.model.Route;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteTableUnitTest {
+
+    @Test
+    void lookupShouldPickLongestPrefixOnSegmentBoundary() {
+        List<Route> routes = new ArrayList<>();
+        List<List<String>> prefixes = new ArrayList<>();
+        routes.add(route("event", "http://event:8083", 0, null));
+        prefixes.add(List.of("/events"));
+        routes.add(route("geo", "http://geo:8085", 0, "/api/geo"));
+        prefixes.add(List.of("/geo"));
+        routes.add(route("geo-api", "http://geo:8086", 0, null));
+        prefixes.add(List.of("/api/geo", "/api/address"));
+        for (int i = 0; i < 60; i++) {
+            routes.add(route("svc" + i, "http://svc" + i + ":80", 1, null));
+            prefixes.add(List.of("/svc" + i));
+        }
+        RouteTable table = new RouteTable(routes, prefixes);
+
+        assertThat(table.lookup("/events").getRoute().getId()).isEqualTo("event");
+        assertThat(table.lookup("/events/42/feedback").getRoute().getId()).isEqualTo("event");
+        assertThat(table.lookup("/eventsfoo")).isNull();
+        assertThat(table.lookup("/svc1/x").getRoute().getId()).isEqualTo("svc1");
+        assertThat(table.lookup("/svc12/x").getRoute().getId()).isEqualTo("svc12");
+        assertThat(table.lookup("/svc12/x").upstreamPath("/svc12/x")).isEqualTo("/x");
+        assertThat(table.lookup("/geo/search").upstreamPath("/geo/search")).isEqualTo("/api/geo/search");
+        assertThat(table.lookup("/internal/users")).isNull();
+        assertThat(table.routeForUpstream(URI.create("http://geo:8086/api/address/suggest")).getId())
+                .isEqualTo("geo-api");
+        assertThat(table.routeForUpstream(URI.create("http://geo:9999/api/address/suggest"))).isNull();
+        assertThat(table.routeForUpstream(URI.create("https://geo:8086/api/address/suggest"))).isNull();
+    }
+
+    private static Route route(String id, String uri, int stripPrefix, String prefixRewrite) {
+        return new Route(id, List.of(uri), Duration.ofSeconds(1), Duration.ofSeconds(5), 0, stripPrefix,
+                prefixRewrite, Duration.ZERO, null, null);
+    }
+}
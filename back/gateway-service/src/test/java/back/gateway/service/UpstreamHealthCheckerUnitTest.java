@@ -0,0 +1,78 @@
+package back.gateway.service;
+
+import back.gateway.model.Route;
+import back.gateway.model.Upstream;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamHealthCheckerUnitTest {
+
+    @Test
+    void deadInstanceShouldBeEjectedAndReadmittedAfterThresholds() throws Exception {
+        HttpServer alive = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        alive.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        alive.start();
+        int deadPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+        try {
+            String aliveUri = "http://127.0.0.1:" + alive.getAddress().getPort();
+            String deadUri = "http://127.0.0.1:" + deadPort;
+            Route route = new Route("event", List.of(aliveUri, deadUri), Duration.ofSeconds(1),
+                    Duration.ofSeconds(1), 0, 0, null, Duration.ZERO, "/", null);
+            RouteTable routeTable = new RouteTable(List.of(route), List.of(List.of("/events")));
+            UpstreamHealthChecker checker = new UpstreamHealthChecker(
+                    routeTable, new SimpleMeterRegistry(), true, Duration.ofMillis(500), 2, 2);
+            Upstream dead = route.getUpstreams().get(1);
+
+            checker.probeAll();
+            assertThat(dead.isHealthy()).isTrue();
+            checker.probeAll();
+            assertThat(dead.isHealthy()).isFalse();
+            for (int i = 0; i < 100; i++) {
+                assertThat(route.choose(null).getUri()).isEqualTo(aliveUri);
+            }
+
+            assertThat(dead.recordProbe(true, 2, 2)).isFalse();
+            assertThat(dead.recordProbe(true, 2, 2)).isTrue();
+            assertThat(dead.isHealthy()).isTrue();
+        } finally {
+            alive.stop(0);
+        }
+    }
+
+    @Test
+    void balancerShouldPreferLessLoadedAndWarmInstances() {
+        Route route = new Route("geo", List.of("http://geo-1", "http://geo-2"), Duration.ofSeconds(1),
+                Duration.ofSeconds(1), 0, 0, null, Duration.ofMinutes(10), null, null);
+        Upstream first = route.getUpstreams().get(0);
+        Upstream second = route.getUpstreams().get(1);
+
+        first.acquire();
+        first.acquire();
+        for (int i = 0; i < 50; i++) {
+            assertThat(route.choose(null)).isSameAs(second);
+        }
+        first.release();
+        first.release();
+
+        // second только что возвращён в ротацию: slow-start снижает его вес.
+        second.recordProbe(false, 1, 1);
+        second.recordProbe(true, 1, 1);
+        second.acquire();
+        assertThat(route.choose(null)).isSameAs(first);
+        assertThat(route.choose(first)).isSameAs(second);
+    }
+}
@@ -0,0 +1,116 @@
+package back.gateway.service;
+
+import back.gateway.model.ProxiedResponse;
+import back.gateway.model.ResiliencePolicy;
+import back.gateway.model.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamInvokerUnitTest {
+
+    @Test
+    void openCircuitShouldRejectWithoutCallingUpstreamAndRetryBudgetShouldCapRetries() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Route route = route(List.of("http://quiz-1"), 3,
+                new ResiliencePolicy(2, Duration.ofMinutes(1), false, Duration.ZERO, Duration.ZERO));
+        UpstreamInvoker invoker = invoker(new RetryBudget(registry, 0.0, 0), registry, route);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> invoker.exchange(route, HttpMethod.GET, endpoint -> {
+                calls.incrementAndGet();
+                throw new ResourceAccessException("connect timed out");
+            })).isInstanceOf(ResourceAccessException.class);
+        }
+        // Бюджет пуст: retries=3 не дают ни одного повтора.
+        assertThat(calls.get()).isEqualTo(2);
+
+        ProxiedResponse rejected = invoker.exchange(route, HttpMethod.GET, endpoint -> {
+            calls.incrementAndGet();
+            return ok(endpoint);
+        });
+
+        assertThat(rejected.getStatus().value()).isEqualTo(503);
+        assertThat(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(registry.get("gateway.retry.budget.exhausted").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get("gateway.upstream.rejected").tag("route", "test").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void slowGetShouldBeHedgedToAnotherInstance() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Route route = route(List.of("http://geo-1", "http://geo-2"), 0,
+                new ResiliencePolicy(5, Duration.ofSeconds(10), true, Duration.ofMillis(20), Duration.ofMillis(50)));
+        UpstreamInvoker invoker = invoker(new RetryBudget(registry, 0.2, 10), registry, route);
+        for (int i = 0; i < 50; i++) {
+            route.getLatency().record(Duration.ofMillis(5).toNanos());
+        }
+        AtomicInteger slowCalls = new AtomicInteger();
+
+        long start = System.nanoTime();
+        ProxiedResponse response = invoker.exchange(route, HttpMethod.GET, endpoint -> {
+            if (slowCalls.getAndIncrement() == 0) {
+                sleep(5_000);
+            }
+            return ok(endpoint);
+        });
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(response.getStatus().value()).isEqualTo(200);
+        assertThat(slowCalls.get()).isEqualTo(2);
+        assertThat(registry.get("gateway.hedge.requests").tag("result", "won").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void clientStreamErrorsShouldNotOpenCircuit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Route route = route(List.of("http://event-1"), 0,
+                new ResiliencePolicy(1, Duration.ofMinutes(1), false, Duration.ZERO, Duration.ZERO));
+        UpstreamInvoker invoker = invoker(new RetryBudget(registry, 0.2, 10), registry, route);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> invoker.invokeOnce(route, endpoint -> {
+                throw new ClientStreamException(new IOException("Broken pipe"));
+            })).isInstanceOf(ClientStreamException.class);
+        }
+
+        assertThat(route.getUpstreams().get(0).getCircuitBreaker().isClosed()).isTrue();
+        assertThat(invoker.invokeOnce(route, endpoint -> 200)).isEqualTo(200);
+    }
+
+    private static UpstreamInvoker invoker(RetryBudget retryBudget, SimpleMeterRegistry registry, Route route) {
+        return new UpstreamInvoker(retryBudget, registry, new RouteTable(List.of(route), List.of(List.of("/test"))));
+    }
+
+    private static Route route(List<String> uris, int retries, ResiliencePolicy policy) {
+        return new Route("test", uris, Duration.ofSeconds(1), Duration.ofSeconds(1), retries, 0, null,
+                Duration.ZERO, null, policy);
+    }
+
+    private static ProxiedResponse ok(String endpoint) {
+        return new ProxiedResponse(HttpStatus.OK, new HttpHeaders(), endpoint.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("interrupted");
+        }
+    }
+}
@@ -2,7 +2,9 @@ package back.quiz.service;
 
 import back.quiz.model.User;
 import back.quiz.model.enums.UserRole;
+import back.quiz.util.InternalPrincipal;
 import back.quiz.util.JwtTokenUtil;
+import back.quiz.util.TokenClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -21,7 +23,18 @@ public class UserService {
         this.jwtTokenUtil = jwtTokenUtil;
     }
 
+    /**
+     * Для пользователя текущего запроса с {@link InternalPrincipal} БД не
+     * запрашивается: возвращаются только id, email и роль — остальным
+     * вызывающим в этом сервисе больше и не нужно.
+     */
     public User getUserByEmail(String email) {
+        InternalPrincipal principal = InternalPrincipal.current();
+        if (principal != null && email != null && principal.getEmail().equalsIgnoreCase(email.trim())) {
+            return new User(principal.getId(), null, principal.getEmail(), null, null,
+                    UserRole.fromString(principal.getRole()));
+        }
+
         String sql = "SELECT * FROM \"User\" WHERE LOWER(\"email\") = LOWER(?)";
         try {
             return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new User(
@@ -38,6 +51,9 @@ public class UserService {
     }
 
     public boolean checkValidToken(String token) {
+        if (InternalPrincipal.current() != null) {
+            return true;
+        }
         try {
             boolean validToken = jwtTokenUtil.validateJwtToken(token);
             System.out.println(">> Токен " + (validToken ? "валиден" : "не валиден") + ": "
@@ -51,23 +67,29 @@ public class UserService {
     }
 
     public String extractEmail(String token) {
-        if (!jwtTokenUtil.validateJwtToken(token)) {
-            System.out.println(">> Токен не валиден при извлечении email");
-            return null;
+        // Запрос прошёл через gateway: токен там уже проверен.
+        InternalPrincipal principal = InternalPrincipal.current();
+        if (principal != null) {
+            return principal.getEmail();
         }
 
-        try {
-            String email = jwtTokenUtil.getEmailFromJwtToken(token);
-            System.out.println(">> Извлечен email: " + email);
-            return email;
-        } catch (Exception e) {
-            logger.error("Failed to extract email from token: {}", e.getMessage());
-            System.out.println(">> Ошибка извлечения email из токена: " + e.getMessage());
+        TokenClaims claims = jwtTokenUtil.verify(token);
+        if (claims == null) {
+            System.out.println(">> Токен не валиден при извлечении email");
             return null;
         }
+
+        String email = claims.getSubject();
+        System.out.println(">> Извлечен email: " + email);
+        return email;
     }
 
     public String getUserRole(String token) {
+        InternalPrincipal principal = InternalPrincipal.current();
+        if (principal != null) {
+            return principal.getRole();
+        }
+
         String email = extractEmail(token);
         if (email == null) {
             return null;
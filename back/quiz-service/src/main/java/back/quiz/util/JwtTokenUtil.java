@@ -1,49 +1,124 @@
 package back.quiz.util;
 
-import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.UnsupportedJwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
-import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Работа с JWT. Ключ ({@code jwt.secret} как HMAC-SHA256) и потокобезопасный
+ * {@link JwtParser} создаются один раз при первом обращении; токен
+ * разбирается один раз в {@link #verify(String)}. Недавно проверенные токены
+ * запоминаются (до {@code jwt.verify-cache.size} штук, по SHA-256 токена) до
+ * истечения их срока действия.
+ */
 @Component
 public class JwtTokenUtil {
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenUtil.class);
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
 
-    private String getEncodedSecret() {
-        return Base64.getEncoder().encodeToString(jwtSecret.getBytes());
+    @Value("${jwt.verify-cache.size:1024}")
+    private int verifyCacheSize;
+
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
+    private final ConcurrentHashMap<String, TokenClaims> verified = new ConcurrentHashMap<>();
+
+    private SecretKey signingKey() {
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256");
+            signingKey = key;
+        }
+        return key;
     }
 
-    public boolean validateJwtToken(String token) {
-        try {
-            Jwts.parser().setSigningKey(getEncodedSecret()).parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException | ExpiredJwtException | UnsupportedJwtException | IllegalArgumentException ex) {
-            ex.printStackTrace();
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(signingKey()).build();
+            parser = current;
         }
-        return false;
+        return current;
     }
 
-    public String getEmailFromJwtToken(String token) {
-        if (token == null || token.isEmpty()) {
+    /**
+     * Проверяет подпись и срок действия.
+     *
+     * @return claims токена или {@code null}, если токен невалиден
+     */
+    public TokenClaims verify(String token) {
+        if (token == null || token.isBlank()) {
             return null;
         }
+        String trimmed = token.trim();
+        long now = System.currentTimeMillis();
 
-        token = token.trim();
+        String cacheKey = verifyCacheSize > 0 ? sha256(trimmed) : null;
+        if (cacheKey != null) {
+            TokenClaims cached = verified.get(cacheKey);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    return cached;
+                }
+                verified.remove(cacheKey, cached);
+            }
+        }
+
+        TokenClaims claims;
         try {
-            return Jwts.parser().setSigningKey(getEncodedSecret()).parseClaimsJws(token).getBody().getSubject();
-        } catch (Exception e) {
-            e.printStackTrace();
+            Claims body = parser().parseClaimsJws(trimmed).getBody();
+            claims = new TokenClaims(body.getSubject(), body.getIssuedAt(), body.getExpiration());
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.debug("JWT не прошёл проверку: {}", ex.getMessage());
             return null;
         }
+
+        if (cacheKey != null) {
+            if (verified.size() >= verifyCacheSize) {
+                verified.values().removeIf(entry -> entry.isExpired(now));
+                if (verified.size() >= verifyCacheSize) {
+                    verified.clear();
+                }
+            }
+            verified.put(cacheKey, claims);
+        }
+        return claims;
+    }
+
+    public boolean validateJwtToken(String token) {
+        return verify(token) != null;
+    }
+
+    public String getEmailFromJwtToken(String token) {
+        TokenClaims claims = verify(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
 }
@@ -0,0 +1,38 @@
+package back.quiz.util;
+
+import java.util.Date;
+
+/**
+ * Результат проверки JWT: подпись и срок действия уже проверены
+ * {@link JwtTokenUtil#verify(String)}.
+ */
+public final class TokenClaims {
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+
+    public TokenClaims(String subject, Date issuedAt, Date expiration) {
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    /**
+     * Email пользователя.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+}
@@ -21,9 +21,15 @@ public class DatabaseInitializer {
         try {
             createTables();
             migrateUserPhoneNumberNullability();
+            migrateEventArrays();
+            migrateEventSearchVector();
+            migrateRegistrationUniqueness();
+            migrateFeedbackAggregates();
+            migrateFeedbackCreatedAt();
             createConstraintsAndTriggers();
             createIndexes();
             createFunctions();
+            backfillOrganizerDashboard();
         } catch (Exception e) {
             logger.severe("Error during database initialization: " + e.getMessage());
             throw e;
@@ -57,10 +63,10 @@ public class DatabaseInitializer {
                 	\"maxParticipants\" INT,
                 	\"registeredParticipants\" INT,
                 	\"hasQuiz\" BOOLEAN,
-                	\"images\" TEXT,
+                	\"images\" TEXT[] NOT NULL DEFAULT '{}',
                 	\"eventCategory\" VARCHAR(255),
                 	\"status\" VARCHAR(50) DEFAULT 'active',
-                	\"tags\" TEXT,
+                	\"tags\" TEXT[] NOT NULL DEFAULT '{}',
                 	CONSTRAINT \"FK_Event_Organizer\"
                 		FOREIGN KEY (\"organizerId\") REFERENCES \"User\" (\"ID\") ON DELETE CASCADE
                 );
@@ -126,6 +132,7 @@ public class DatabaseInitializer {
                     \"event\" INT NOT NULL,
                     \"rating\" INT CHECK (\"rating\" BETWEEN 1 AND 5),
                     \"comment\" TEXT,
+                    \"createdAt\" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
                     CONSTRAINT \"FK_Feedback_User\"
                         FOREIGN KEY (\"user\") REFERENCES \"User\" (\"ID\") ON DELETE CASCADE,
                     CONSTRAINT \"FK_Feedback_Event\"
@@ -138,10 +145,91 @@ public class DatabaseInitializer {
                     \"event\" INT NOT NULL UNIQUE,
                     \"quantity_of_participants\" INT DEFAULT 0 CHECK (\"quantity_of_participants\" >= 0),
                     \"medium_rating\" FLOAT DEFAULT 0 CHECK (\"medium_rating\" >= 0 AND \"medium_rating\" <= 5),
+                    \"ratingSum\" BIGINT NOT NULL DEFAULT 0,
+                    \"ratingCount\" INT NOT NULL DEFAULT 0,
+                    \"ratingHistogram\" INT[] NOT NULL DEFAULT '{0,0,0,0,0}',
                     CONSTRAINT \"FK_OrganizerStats_Event\"
                         FOREIGN KEY (\"event\") REFERENCES \"Event\" (\"ID\") ON DELETE CASCADE
                 );
                 """);
+        // Сводка организатора для дашборда: уникальные участники и сумма/число
+        // оценок по всем его событиям. \"OrganizerMember\" — сколько регистраций
+        // участник держит на событиях организатора, по нему триггеры понимают,
+        // когда участник появился или пропал. Внешних ключей на \"User\" нет:
+        // строки пересчитывает reconcile_organizer_dashboard() и при каскадном
+        // удалении организатора.
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS \"OrganizerDashboard\" (
+                    \"organizer\" INT PRIMARY KEY,
+                    \"participants\" INT NOT NULL DEFAULT 0,
+                    \"ratingSum\" BIGINT NOT NULL DEFAULT 0,
+                    \"ratingCount\" INT NOT NULL DEFAULT 0,
+                    \"reconciledAt\" TIMESTAMP
+                );
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS \"OrganizerMember\" (
+                    \"organizer\" INT NOT NULL,
+                    \"member\" INT NOT NULL,
+                    \"registrations\" INT NOT NULL,
+                    PRIMARY KEY (\"organizer\", \"member\")
+                );
+                """);
+        // Режим flash sale: свободные места события разбиты на шарды, чтобы
+        // конкурентные регистрации не упирались в блокировку одной строки \"Event\".
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS \"EventSeatShard\" (
+                    \"event\" INT NOT NULL,
+                    \"shard\" INT NOT NULL,
+                    \"capacity\" INT NOT NULL CHECK (\"capacity\" >= 0),
+                    \"claimed\" INT NOT NULL DEFAULT 0 CHECK (\"claimed\" >= 0 AND \"claimed\" <= \"capacity\"),
+                    PRIMARY KEY (\"event\", \"shard\"),
+                    CONSTRAINT \"FK_EventSeatShard_Event\"
+                        FOREIGN KEY (\"event\") REFERENCES \"Event\" (\"ID\") ON DELETE CASCADE
+                );
+                """);
+        // Очередь ожидания на заполненные события; порядок — по \"ID\" (FIFO).
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS \"Waitlist\" (
+                    \"ID\" BIGSERIAL PRIMARY KEY,
+                    \"event\" INT NOT NULL,
+                    \"member\" INT NOT NULL,
+                    \"joinedAt\" TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    CONSTRAINT \"UQ_Waitlist_Event_Member\" UNIQUE (\"event\", \"member\"),
+                    CONSTRAINT \"FK_Waitlist_Event\"
+                        FOREIGN KEY (\"event\") REFERENCES \"Event\" (\"ID\") ON DELETE CASCADE,
+                    CONSTRAINT \"FK_Waitlist_User\"
+                        FOREIGN KEY (\"member\") REFERENCES \"User\" (\"ID\") ON DELETE CASCADE
+                );
+                """);
+        // Outbox рассылок: задание и по строке на получателя; доставляет
+        // NewsletterWorker в event-service.
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS \"NewsletterJob\" (
+                    \"ID\" BIGSERIAL PRIMARY KEY,
+                    \"event\" INT NOT NULL,
+                    \"sender\" INT NOT NULL,
+                    \"message\" TEXT NOT NULL,
+                    \"createdAt\" TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    CONSTRAINT \"FK_NewsletterJob_Event\"
+                        FOREIGN KEY (\"event\") REFERENCES \"Event\" (\"ID\") ON DELETE CASCADE
+                );
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS \"NewsletterDelivery\" (
+                    \"ID\" BIGSERIAL PRIMARY KEY,
+                    \"job\" BIGINT NOT NULL,
+                    \"email\" VARCHAR(255) NOT NULL,
+                    \"status\" VARCHAR(20) NOT NULL DEFAULT 'pending'
+                        CHECK (\"status\" IN ('pending', 'sending', 'sent', 'failed')),
+                    \"attempts\" INT NOT NULL DEFAULT 0,
+                    \"nextAttemptAt\" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    \"lastError\" TEXT,
+                    \"sentAt\" TIMESTAMP,
+                    CONSTRAINT \"FK_NewsletterDelivery_Job\"
+                        FOREIGN KEY (\"job\") REFERENCES \"NewsletterJob\" (\"ID\") ON DELETE CASCADE
+                );
+                """);
         jdbcTemplate.execute("""
                 CREATE TABLE IF NOT EXISTS \"BlackListUsers\" (
                     \"ID\" SERIAL PRIMARY KEY,
@@ -175,6 +263,154 @@ public class DatabaseInitializer {
         }
     }
 
+    /**
+     * Сумма, число оценок и гистограмма 1–5 по событию в {@code "OrganizerStats"}:
+     * триггер на {@code "Feedback"} ведёт их дельтами вместо AVG по всем
+     * отзывам. При первом запуске значения считаются по существующим отзывам.
+     */
+    private void migrateFeedbackAggregates() {
+        Integer present = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_name = 'OrganizerStats' AND column_name = 'ratingHistogram'
+                """, Integer.class);
+        if (present != null && present > 0) {
+            return;
+        }
+        jdbcTemplate.execute("""
+                ALTER TABLE \"OrganizerStats\"
+                ADD COLUMN IF NOT EXISTS \"ratingSum\" BIGINT NOT NULL DEFAULT 0,
+                ADD COLUMN IF NOT EXISTS \"ratingCount\" INT NOT NULL DEFAULT 0,
+                ADD COLUMN IF NOT EXISTS \"ratingHistogram\" INT[] NOT NULL DEFAULT '{0,0,0,0,0}';
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO \"OrganizerStats\" (\"event\", \"quantity_of_participants\", \"medium_rating\",
+                \"ratingSum\", \"ratingCount\", \"ratingHistogram\")
+                SELECT f.\"event\",
+                (SELECT COUNT(*) FROM \"Registration\" r WHERE r.\"event\" = f.\"event\"),
+                COALESCE(AVG(f.\"rating\"), 0),
+                COALESCE(SUM(f.\"rating\"), 0),
+                COUNT(f.\"rating\"),
+                ARRAY[
+                    COUNT(*) FILTER (WHERE f.\"rating\" = 1),
+                    COUNT(*) FILTER (WHERE f.\"rating\" = 2),
+                    COUNT(*) FILTER (WHERE f.\"rating\" = 3),
+                    COUNT(*) FILTER (WHERE f.\"rating\" = 4),
+                    COUNT(*) FILTER (WHERE f.\"rating\" = 5)
+                ]::INT[]
+                FROM \"Feedback\" f
+                GROUP BY f.\"event\"
+                ON CONFLICT (\"event\") DO UPDATE
+                SET \"medium_rating\" = EXCLUDED.\"medium_rating\",
+                \"ratingSum\" = EXCLUDED.\"ratingSum\",
+                \"ratingCount\" = EXCLUDED.\"ratingCount\",
+                \"ratingHistogram\" = EXCLUDED.\"ratingHistogram\";
+                """);
+        logger.info("Backfilled rating aggregates in OrganizerStats");
+    }
+
+    /**
+     * Время отзыва для ленты отзывов. Старым отзывам достаётся время миграции.
+     */
+    private void migrateFeedbackCreatedAt() {
+        jdbcTemplate.execute("""
+                ALTER TABLE \"Feedback\"
+                ADD COLUMN IF NOT EXISTS \"createdAt\" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+                """);
+    }
+
+    /**
+     * {@code images} и {@code tags} раньше хранились строкой через запятую.
+     * Старые столбцы переводятся в {@code text[]} на месте; зависящие от них
+     * {@code searchVector} и индекс по {@code string_to_array} удаляются и
+     * создаются заново следующими шагами инициализации.
+     */
+    private void migrateEventArrays() {
+        Integer legacyColumns = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_name = 'Event' AND column_name IN ('images', 'tags') AND data_type = 'text'
+                """, Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+        jdbcTemplate.execute("""
+                DROP INDEX IF EXISTS idx_event_tags;
+                """);
+        jdbcTemplate.execute("""
+                ALTER TABLE \"Event\" DROP COLUMN IF EXISTS \"searchVector\";
+                """);
+        jdbcTemplate.execute("""
+                ALTER TABLE \"Event\"
+                ALTER COLUMN \"tags\" DROP DEFAULT,
+                ALTER COLUMN \"tags\" TYPE TEXT[] USING CASE
+                    WHEN btrim(COALESCE(\"tags\", '')) = '' THEN '{}'::TEXT[]
+                    ELSE regexp_split_to_array(btrim(\"tags\", ' ,'), '\\s*,[\\s,]*')
+                END,
+                ALTER COLUMN \"tags\" SET DEFAULT '{}',
+                ALTER COLUMN \"tags\" SET NOT NULL,
+                ALTER COLUMN \"images\" DROP DEFAULT,
+                ALTER COLUMN \"images\" TYPE TEXT[] USING CASE
+                    WHEN COALESCE(\"images\", '') = '' THEN '{}'::TEXT[]
+                    ELSE string_to_array(\"images\", ',')
+                END,
+                ALTER COLUMN \"images\" SET DEFAULT '{}',
+                ALTER COLUMN \"images\" SET NOT NULL;
+                """);
+        logger.info("Migrated Event.images and Event.tags to TEXT[]");
+    }
+
+    /**
+     * Полнотекстовый поиск по событиям: вектор считается самим Postgres при
+     * каждой записи (generated column), поэтому event-service не нужно его
+     * поддерживать. Конфигурация {@code simple} — без стемминга, одинаково для
+     * русского и английского; словоформы покрывает префиксный поиск.
+     */
+    private void migrateEventSearchVector() {
+        // array_to_string не IMMUTABLE, а generated column требует именно этого;
+        // для text[] результат от настроек сессии не зависит.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION event_tags_text(tags TEXT[])
+                RETURNS TEXT AS $$
+                    SELECT array_to_string(tags, ' ');
+                $$ LANGUAGE sql IMMUTABLE;
+                """);
+        jdbcTemplate.execute("""
+                ALTER TABLE \"Event\" ADD COLUMN IF NOT EXISTS \"searchVector\" tsvector
+                GENERATED ALWAYS AS (
+                    setweight(to_tsvector('simple', COALESCE(\"title\", '')), 'A')
+                    || setweight(to_tsvector('simple', COALESCE(event_tags_text(\"tags\"), '')), 'B')
+                    || setweight(to_tsvector('simple', COALESCE(\"description\", '')), 'C')
+                    || setweight(to_tsvector('simple', COALESCE(\"address\", '')), 'D')
+                ) STORED;
+                """);
+    }
+
+    /**
+     * Один участник — одна регистрация на событие. Дубликаты, оставшиеся от
+     * прежней проверки «COUNT, затем INSERT», удаляются (остаётся самая
+     * ранняя запись), иначе уникальный индекс не построится. Если индекс уже
+     * есть, миграция пропускается.
+     */
+    private void migrateRegistrationUniqueness() {
+        Integer present = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM pg_indexes
+                WHERE tablename = 'Registration' AND indexname = 'uq_registration_event_member'
+                """, Integer.class);
+        if (present != null && present > 0) {
+            return;
+        }
+        jdbcTemplate.execute("""
+                DELETE FROM \"Registration\" duplicate
+                USING \"Registration\" original
+                WHERE duplicate.\"event\" = original.\"event\"
+                AND duplicate.\"member\" = original.\"member\"
+                AND duplicate.\"ID\" > original.\"ID\";
+                """);
+        jdbcTemplate.execute("""
+                CREATE UNIQUE INDEX IF NOT EXISTS uq_registration_event_member
+                ON \"Registration\" (\"event\", \"member\");
+                """);
+    }
+
     private void createConstraintsAndTriggers() {
         jdbcTemplate.execute("""
                 DROP TRIGGER IF EXISTS increment_participants ON \"Registration\";
@@ -184,6 +420,13 @@ public class DatabaseInitializer {
                 CREATE OR REPLACE FUNCTION update_participants_count()
                 RETURNS TRIGGER AS $$
                 BEGIN
+                    -- Во время flash sale счётчики сводит reconcile_flash_sales(),
+                    -- при массовом импорте — apply_bulk_registrations().
+                    IF EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = NEW.\"event\")
+                            OR current_setting('event.bulk_registration', true) = 'on' THEN
+                        RETURN NEW;
+                    END IF;
+
                     UPDATE \"Event\"
                     SET \"registeredParticipants\" = \"registeredParticipants\" + 1
                     WHERE \"ID\" = NEW.\"event\";
@@ -214,37 +457,720 @@ public class DatabaseInitializer {
                 DROP TRIGGER IF EXISTS recalculate_rating ON \"Feedback\";
                 """);
 
+        // Оценки события — дельтами за O(1): вставка, изменение и удаление
+        // отзыва сдвигают сумму, число и гистограмму; medium_rating считается из них.
         jdbcTemplate.execute("""
                 CREATE OR REPLACE FUNCTION update_medium_rating()
                 RETURNS TRIGGER AS $$
                 BEGIN
-                    UPDATE \"OrganizerStats\"
-                    SET \"medium_rating\" = (
-                        SELECT AVG(\"rating\")::FLOAT
-                        FROM \"Feedback\"
-                        WHERE \"event\" = NEW.\"event\"
-                    )
-                    WHERE \"event\" = NEW.\"event\";
-                    RETURN NEW;
+                    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.\"rating\" IS NOT NULL THEN
+                        UPDATE \"OrganizerStats\"
+                        SET \"ratingSum\" = \"ratingSum\" - OLD.\"rating\",
+                        \"ratingCount\" = GREATEST(\"ratingCount\" - 1, 0),
+                        \"ratingHistogram\"[OLD.\"rating\"] = GREATEST(\"ratingHistogram\"[OLD.\"rating\"] - 1, 0),
+                        \"medium_rating\" = LEAST(GREATEST(COALESCE(
+                            (\"ratingSum\" - OLD.\"rating\")::FLOAT / NULLIF(\"ratingCount\" - 1, 0), 0), 0), 5)
+                        WHERE \"event\" = OLD.\"event\";
+                    END IF;
+                    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.\"rating\" IS NOT NULL THEN
+                        INSERT INTO \"OrganizerStats\" AS s (\"event\", \"quantity_of_participants\", \"medium_rating\",
+                        \"ratingSum\", \"ratingCount\", \"ratingHistogram\")
+                        VALUES (NEW.\"event\", 0, NEW.\"rating\", NEW.\"rating\", 1,
+                            array_fill(0, ARRAY[NEW.\"rating\" - 1]) || 1 || array_fill(0, ARRAY[5 - NEW.\"rating\"]))
+                        ON CONFLICT (\"event\") DO UPDATE
+                        SET \"ratingSum\" = s.\"ratingSum\" + NEW.\"rating\",
+                        \"ratingCount\" = s.\"ratingCount\" + 1,
+                        \"ratingHistogram\"[NEW.\"rating\"] = s.\"ratingHistogram\"[NEW.\"rating\"] + 1,
+                        \"medium_rating\" = (s.\"ratingSum\" + NEW.\"rating\")::FLOAT / (s.\"ratingCount\" + 1);
+                    END IF;
+                    RETURN NULL;
                 END;
                 $$ LANGUAGE plpgsql;
                 """);
 
         jdbcTemplate.execute("""
                 CREATE TRIGGER recalculate_rating
-                AFTER INSERT OR UPDATE ON \"Feedback\"
+                AFTER INSERT OR UPDATE OR DELETE ON \"Feedback\"
                 FOR EACH ROW
                 EXECUTE FUNCTION update_medium_rating();
                 """);
+
+        jdbcTemplate.execute("""
+                DROP TRIGGER IF EXISTS decrement_participants ON \"Registration\";
+                """);
+
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION decrease_participants_count()
+                RETURNS TRIGGER AS $$
+                BEGIN
+                    IF EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = OLD.\"event\") THEN
+                        RETURN OLD;
+                    END IF;
+
+                    UPDATE \"Event\"
+                    SET \"registeredParticipants\" = GREATEST(COALESCE(\"registeredParticipants\", 0) - 1, 0)
+                    WHERE \"ID\" = OLD.\"event\";
+
+                    UPDATE \"OrganizerStats\"
+                    SET \"quantity_of_participants\" = GREATEST(\"quantity_of_participants\" - 1, 0)
+                    WHERE \"event\" = OLD.\"event\";
+                    RETURN OLD;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        jdbcTemplate.execute("""
+                CREATE TRIGGER decrement_participants
+                AFTER DELETE ON \"Registration\"
+                FOR EACH ROW
+                EXECUTE FUNCTION decrease_participants_count();
+                """);
+
+        jdbcTemplate.execute("""
+                DROP TRIGGER IF EXISTS release_flash_sale_seat ON \"Registration\";
+                """);
+
+        // Отмена регистрации во время flash sale возвращает место в любой шард.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION release_flash_sale_seat()
+                RETURNS TRIGGER AS $$
+                BEGIN
+                    UPDATE \"EventSeatShard\"
+                    SET \"claimed\" = \"claimed\" - 1
+                    WHERE (\"event\", \"shard\") = (
+                        SELECT \"event\", \"shard\" FROM \"EventSeatShard\"
+                        WHERE \"event\" = OLD.\"event\" AND \"claimed\" > 0
+                        LIMIT 1
+                        FOR UPDATE
+                    );
+                    RETURN OLD;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        jdbcTemplate.execute("""
+                CREATE TRIGGER release_flash_sale_seat
+                AFTER DELETE ON \"Registration\"
+                FOR EACH ROW
+                EXECUTE FUNCTION release_flash_sale_seat();
+                """);
+
+        jdbcTemplate.execute("""
+                DROP TRIGGER IF EXISTS notify_event_changed ON \"Event\";
+                """);
+
+        // Инвалидация кэша карточек событий во всех инстансах event-service:
+        // NOTIFY доставляется только после COMMIT, одинаковые id в одной
+        // транзакции Postgres схлопывает.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION notify_event_changed()
+                RETURNS TRIGGER AS $$
+                BEGIN
+                    IF TG_OP = 'UPDATE' AND OLD IS NOT DISTINCT FROM NEW THEN
+                        RETURN NULL;
+                    END IF;
+                    PERFORM pg_notify('event_changed', OLD.\"ID\"::text);
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        jdbcTemplate.execute("""
+                CREATE TRIGGER notify_event_changed
+                AFTER UPDATE OR DELETE ON \"Event\"
+                FOR EACH ROW
+                EXECUTE FUNCTION notify_event_changed();
+                """);
+
+        jdbcTemplate.execute("""
+                DROP TRIGGER IF EXISTS organizer_dashboard_registration ON \"Registration\";
+                """);
+
+        // Дашборд организатора: +1/-1 участник, только когда у участника
+        // появляется первая или пропадает последняя регистрация на события
+        // организатора. События в режиме flash sale пропускаются (иначе все
+        // их регистрации выстроились бы в очередь за одной строкой
+        // организатора) — их досчитывает reconcile_organizer_dashboard(); вставки
+        // массового импорта учитывает apply_bulk_registrations().
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION organizer_dashboard_on_registration()
+                RETURNS TRIGGER AS $$
+                DECLARE
+                    event_id INT;
+                    member_id INT;
+                    organizer_id INT;
+                BEGIN
+                    IF TG_OP = 'INSERT' THEN
+                        IF current_setting('event.bulk_registration', true) = 'on' THEN
+                            RETURN NULL;
+                        END IF;
+                        event_id := NEW.\"event\";
+                        member_id := NEW.\"member\";
+                    ELSE
+                        event_id := OLD.\"event\";
+                        member_id := OLD.\"member\";
+                    END IF;
+
+                    SELECT \"organizerId\" INTO organizer_id FROM \"Event\" WHERE \"ID\" = event_id;
+                    IF organizer_id IS NULL
+                            OR EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = event_id) THEN
+                        RETURN NULL;
+                    END IF;
+                    PERFORM pg_advisory_xact_lock(hashtext('OrganizerDashboard'), organizer_id);
+
+                    IF TG_OP = 'INSERT' THEN
+                        INSERT INTO \"OrganizerMember\" (\"organizer\", \"member\", \"registrations\")
+                        VALUES (organizer_id, member_id, 1)
+                        ON CONFLICT (\"organizer\", \"member\") DO UPDATE
+                        SET \"registrations\" = \"OrganizerMember\".\"registrations\" + 1;
+                        IF (SELECT \"registrations\" FROM \"OrganizerMember\"
+                                WHERE \"organizer\" = organizer_id AND \"member\" = member_id) = 1 THEN
+                            INSERT INTO \"OrganizerDashboard\" (\"organizer\", \"participants\")
+                            VALUES (organizer_id, 1)
+                            ON CONFLICT (\"organizer\") DO UPDATE
+                            SET \"participants\" = \"OrganizerDashboard\".\"participants\" + 1;
+                        END IF;
+                    ELSE
+                        DELETE FROM \"OrganizerMember\"
+                        WHERE \"organizer\" = organizer_id AND \"member\" = member_id AND \"registrations\" <= 1;
+                        IF FOUND THEN
+                            UPDATE \"OrganizerDashboard\"
+                            SET \"participants\" = GREATEST(\"participants\" - 1, 0)
+                            WHERE \"organizer\" = organizer_id;
+                        ELSE
+                            UPDATE \"OrganizerMember\"
+                            SET \"registrations\" = \"registrations\" - 1
+                            WHERE \"organizer\" = organizer_id AND \"member\" = member_id;
+                        END IF;
+                    END IF;
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        jdbcTemplate.execute("""
+                CREATE TRIGGER organizer_dashboard_registration
+                AFTER INSERT OR DELETE ON \"Registration\"
+                FOR EACH ROW
+                EXECUTE FUNCTION organizer_dashboard_on_registration();
+                """);
+
+        jdbcTemplate.execute("""
+                DROP TRIGGER IF EXISTS organizer_dashboard_feedback ON \"Feedback\";
+                """);
+
+        // Сумма и число оценок организатора — дельтами, в том числе при
+        // изменении и удалении отзыва.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION organizer_dashboard_on_feedback()
+                RETURNS TRIGGER AS $$
+                DECLARE
+                    organizer_id INT;
+                BEGIN
+                    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.\"rating\" IS NOT NULL THEN
+                        SELECT \"organizerId\" INTO organizer_id FROM \"Event\" WHERE \"ID\" = OLD.\"event\";
+                        IF organizer_id IS NOT NULL THEN
+                            PERFORM pg_advisory_xact_lock(hashtext('OrganizerDashboard'), organizer_id);
+                            UPDATE \"OrganizerDashboard\"
+                            SET \"ratingSum\" = \"ratingSum\" - OLD.\"rating\",
+                            \"ratingCount\" = GREATEST(\"ratingCount\" - 1, 0)
+                            WHERE \"organizer\" = organizer_id;
+                        END IF;
+                    END IF;
+                    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.\"rating\" IS NOT NULL THEN
+                        SELECT \"organizerId\" INTO organizer_id FROM \"Event\" WHERE \"ID\" = NEW.\"event\";
+                        IF organizer_id IS NOT NULL THEN
+                            PERFORM pg_advisory_xact_lock(hashtext('OrganizerDashboard'), organizer_id);
+                            INSERT INTO \"OrganizerDashboard\" (\"organizer\", \"ratingSum\", \"ratingCount\")
+                            VALUES (organizer_id, NEW.\"rating\", 1)
+                            ON CONFLICT (\"organizer\") DO UPDATE
+                            SET \"ratingSum\" = \"OrganizerDashboard\".\"ratingSum\" + NEW.\"rating\",
+                            \"ratingCount\" = \"OrganizerDashboard\".\"ratingCount\" + 1;
+                        END IF;
+                    END IF;
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        jdbcTemplate.execute("""
+                CREATE TRIGGER organizer_dashboard_feedback
+                AFTER INSERT OR UPDATE OR DELETE ON \"Feedback\"
+                FOR EACH ROW
+                EXECUTE FUNCTION organizer_dashboard_on_feedback();
+                """);
+
+        jdbcTemplate.execute("""
+                DROP TRIGGER IF EXISTS organizer_dashboard_event ON \"Event\";
+                """);
+
+        // Удалённое событие уносит каскадом регистрации и отзывы, чьи триггеры
+        // уже не находят организатора, поэтому сводка организатора
+        // пересчитывается целиком (редкая операция).
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION organizer_dashboard_on_event_delete()
+                RETURNS TRIGGER AS $$
+                BEGIN
+                    PERFORM reconcile_organizer_dashboard(OLD.\"organizerId\");
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        jdbcTemplate.execute("""
+                CREATE TRIGGER organizer_dashboard_event
+                AFTER DELETE ON \"Event\"
+                FOR EACH ROW
+                EXECUTE FUNCTION organizer_dashboard_on_event_delete();
+                """);
+    }
+
+    /**
+     * Первый запуск с \"OrganizerDashboard\": сводка строится для всех
+     * организаторов, дальше её ведут триггеры и фоновый пересчёт event-service.
+     */
+    private void backfillOrganizerDashboard() {
+        jdbcTemplate.execute("""
+                SELECT reconcile_organizer_dashboard(o.\"organizerId\")
+                FROM (SELECT DISTINCT \"organizerId\" FROM \"Event\") o
+                WHERE NOT EXISTS (SELECT 1 FROM \"OrganizerDashboard\");
+                """);
     }
 
     private void createIndexes() {
         jdbcTemplate.execute("""
                 CREATE INDEX IF NOT EXISTS idx_user_quiz_result ON \"UserQuizResult\" (\"user\", \"quiz\");
                 """);
+
+        // Каталог GET /events: ключи сортировки с \"ID\" как тай-брейкером
+        // (keyset-пагинация) и фильтры, которые выполняются в Postgres.
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_start_date ON \"Event\" (\"startDate\", \"ID\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_price ON \"Event\" ((COALESCE(\"price\", 0)), \"ID\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_category_start_date
+                ON \"Event\" (LOWER(\"eventCategory\"), \"startDate\", \"ID\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_organizer ON \"Event\" (\"organizerId\", \"ID\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_end_date ON \"Event\" (\"endDate\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_tags ON \"Event\" USING GIN (\"tags\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_search ON \"Event\" USING GIN (\"searchVector\");
+                """);
+        // Лента отзывов: keyset по "ID" внутри события, с фильтром по оценке и без.
+        jdbcTemplate.execute("""
+                DROP INDEX IF EXISTS idx_feedback_event;
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_feedback_event_id ON \"Feedback\" (\"event\", \"ID\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_feedback_event_rating ON \"Feedback\" (\"event\", \"rating\", \"ID\");
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_waitlist_event ON \"Waitlist\" (\"event\", \"ID\");
+                """);
+        // Очередь доставки: только незавершённые строки, по времени следующей попытки.
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_newsletter_delivery_due ON \"NewsletterDelivery\" (\"nextAttemptAt\", \"ID\")
+                WHERE \"status\" IN ('pending', 'sending');
+                """);
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_newsletter_delivery_job ON \"NewsletterDelivery\" (\"job\", \"status\");
+                """);
+        // GET /events/nearby: прямоугольник вокруг точки по встроенному типу point (PostGIS не нужен).
+        jdbcTemplate.execute("""
+                CREATE INDEX IF NOT EXISTS idx_event_location ON \"Event\" USING GIST (point(\"longitude\", \"latitude\"))
+                WHERE \"latitude\" IS NOT NULL AND \"longitude\" IS NOT NULL;
+                """);
     }
 
     private void createFunctions() {
+        // Регистрация за один вызов. Обычный режим: FOR UPDATE сериализует
+        // регистрации на одно событие, поэтому проверка мест и INSERT не
+        // разделены гонкой; счётчик увеличивает триггер increment_participants.
+        // Flash sale: место берётся из случайного свободного шарда с SKIP LOCKED,
+        // строка \"Event\" не блокируется вовсе. Если мест нет, пользователь
+        // встаёт в \"Waitlist\"; заведомо заполненное событие (чтение без
+        // блокировки) ставит в очередь сразу, не сериализуясь на строке события.
+        // Очередь FIFO: пока кто-то стоит в ней раньше пользователя, тот тоже
+        // встаёт в очередь, даже если место есть. Быстрый путь держит
+        // разделяемую advisory-блокировку очереди события до коммита, а
+        // освобождающие места (cancel_registration, promote_waitlist) берут её
+        // эксклюзивно до блокировки строки события — так они дожидаются
+        // незакоммиченных постановок в очередь и видят всех ожидающих.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION register_for_event(event_id INT, member_id INT)
+                RETURNS TEXT AS $$
+                DECLARE
+                    max_participants INT;
+                    registered INT;
+                    shard_no INT;
+                BEGIN
+                    IF NOT EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = event_id) THEN
+                        PERFORM pg_advisory_xact_lock_shared(hashtext('Waitlist'), event_id);
+                        SELECT \"maxParticipants\", \"registeredParticipants\"
+                        INTO max_participants, registered
+                        FROM \"Event\" WHERE \"ID\" = event_id;
+                        IF FOUND AND COALESCE(max_participants, 0) > 0 AND COALESCE(registered, 0) >= max_participants
+                                AND NOT EXISTS (SELECT 1 FROM \"Registration\" WHERE \"event\" = event_id AND \"member\" = member_id) THEN
+                            INSERT INTO \"Waitlist\" (\"event\", \"member\") VALUES (event_id, member_id)
+                            ON CONFLICT (\"event\", \"member\") DO NOTHING;
+                            RETURN 'WAITLISTED';
+                        END IF;
+
+                        SELECT \"maxParticipants\", \"registeredParticipants\"
+                        INTO max_participants, registered
+                        FROM \"Event\" WHERE \"ID\" = event_id
+                        FOR UPDATE;
+                        IF NOT FOUND THEN
+                            RETURN 'EVENT_NOT_FOUND';
+                        END IF;
+
+                        -- flash sale могли включить, пока мы ждали блокировку
+                        IF NOT EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = event_id) THEN
+                            IF EXISTS (SELECT 1 FROM \"Registration\" WHERE \"event\" = event_id AND \"member\" = member_id) THEN
+                                RETURN 'ALREADY_REGISTERED';
+                            END IF;
+
+                            IF COALESCE(max_participants, 0) > 0 AND COALESCE(registered, 0) >= max_participants
+                                    OR EXISTS (
+                                        SELECT 1 FROM \"Waitlist\" w
+                                        WHERE w.\"event\" = event_id
+                                        AND w.\"ID\" < COALESCE(
+                                            (SELECT \"ID\" FROM \"Waitlist\" WHERE \"event\" = event_id AND \"member\" = member_id),
+                                            9223372036854775807)
+                                    ) THEN
+                                INSERT INTO \"Waitlist\" (\"event\", \"member\") VALUES (event_id, member_id)
+                                ON CONFLICT (\"event\", \"member\") DO NOTHING;
+                                RETURN 'WAITLISTED';
+                            END IF;
+
+                            INSERT INTO \"Registration\" (\"event\", \"member\") VALUES (event_id, member_id)
+                            ON CONFLICT (\"event\", \"member\") DO NOTHING;
+                            IF NOT FOUND THEN
+                                RETURN 'ALREADY_REGISTERED';
+                            END IF;
+                            DELETE FROM \"Waitlist\" WHERE \"event\" = event_id AND \"member\" = member_id;
+                            RETURN 'REGISTERED';
+                        END IF;
+                    END IF;
+
+                    SELECT \"shard\" INTO shard_no FROM \"EventSeatShard\"
+                    WHERE \"event\" = event_id AND \"claimed\" < \"capacity\"
+                    ORDER BY random()
+                    LIMIT 1
+                    FOR UPDATE SKIP LOCKED;
+                    IF NOT FOUND THEN
+                        -- все свободные шарды заняты конкурентами: ждём любой из них
+                        SELECT \"shard\" INTO shard_no FROM \"EventSeatShard\"
+                        WHERE \"event\" = event_id AND \"claimed\" < \"capacity\"
+                        LIMIT 1
+                        FOR UPDATE;
+                    END IF;
+                    IF NOT FOUND THEN
+                        IF NOT EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = event_id) THEN
+                            -- flash sale только что выключили
+                            RETURN register_for_event(event_id, member_id);
+                        END IF;
+                        IF EXISTS (SELECT 1 FROM \"Registration\" WHERE \"event\" = event_id AND \"member\" = member_id) THEN
+                            RETURN 'ALREADY_REGISTERED';
+                        END IF;
+                        INSERT INTO \"Waitlist\" (\"event\", \"member\") VALUES (event_id, member_id)
+                        ON CONFLICT (\"event\", \"member\") DO NOTHING;
+                        RETURN 'WAITLISTED';
+                    END IF;
+
+                    INSERT INTO \"Registration\" (\"event\", \"member\") VALUES (event_id, member_id)
+                    ON CONFLICT (\"event\", \"member\") DO NOTHING;
+                    IF NOT FOUND THEN
+                        RETURN 'ALREADY_REGISTERED';
+                    END IF;
+                    UPDATE \"EventSeatShard\" SET \"claimed\" = \"claimed\" + 1
+                    WHERE \"event\" = event_id AND \"shard\" = shard_no;
+                    DELETE FROM \"Waitlist\" WHERE \"event\" = event_id AND \"member\" = member_id;
+                    RETURN 'REGISTERED';
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        // Продвижение очереди в обычном режиме: пока есть свободные места,
+        // первые по \"ID\" ожидающие получают регистрацию. Возвращает id
+        // продвинутых. Эксклюзивная advisory-блокировка очереди берётся до
+        // строки события (тот же порядок, что у register_for_event).
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION promote_waitlist(event_id INT)
+                RETURNS SETOF INT AS $$
+                DECLARE
+                    max_participants INT;
+                    registered INT;
+                    waiter_id BIGINT;
+                    waiter INT;
+                BEGIN
+                    PERFORM pg_advisory_xact_lock(hashtext('Waitlist'), event_id);
+                    SELECT \"maxParticipants\" INTO max_participants
+                    FROM \"Event\" WHERE \"ID\" = event_id
+                    FOR UPDATE;
+                    IF NOT FOUND OR EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = event_id) THEN
+                        RETURN;
+                    END IF;
+
+                    LOOP
+                        SELECT \"registeredParticipants\" INTO registered FROM \"Event\" WHERE \"ID\" = event_id;
+                        EXIT WHEN COALESCE(max_participants, 0) > 0 AND COALESCE(registered, 0) >= max_participants;
+
+                        SELECT \"ID\", \"member\" INTO waiter_id, waiter
+                        FROM \"Waitlist\" WHERE \"event\" = event_id
+                        ORDER BY \"ID\"
+                        LIMIT 1;
+                        EXIT WHEN NOT FOUND;
+
+                        DELETE FROM \"Waitlist\" WHERE \"ID\" = waiter_id;
+                        INSERT INTO \"Registration\" (\"event\", \"member\") VALUES (event_id, waiter)
+                        ON CONFLICT (\"event\", \"member\") DO NOTHING;
+                        IF FOUND THEN
+                            RETURN NEXT waiter;
+                        END IF;
+                    END LOOP;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        // Отмена регистрации с продвижением очереди в той же транзакции: место
+        // освобождает триггер decrement_participants (или release_flash_sale_seat),
+        // первого ожидающего продвигает promote_waitlist (во flash sale —
+        // register_for_event). Возвращает id продвинутого участника, 0 — если
+        // продвигать некого, -1 — если регистрации не было.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION cancel_registration(event_id INT, member_id INT)
+                RETURNS INT AS $$
+                DECLARE
+                    waiter_id BIGINT;
+                    waiter INT;
+                BEGIN
+                    -- дожидаемся незакоммиченных постановок в очередь быстрым путём
+                    PERFORM pg_advisory_xact_lock(hashtext('Waitlist'), event_id);
+                    -- та же блокировка, что у register_for_event в обычном режиме
+                    PERFORM 1 FROM \"Event\" WHERE \"ID\" = event_id FOR UPDATE;
+
+                    DELETE FROM \"Registration\" WHERE \"event\" = event_id AND \"member\" = member_id;
+                    IF NOT FOUND THEN
+                        DELETE FROM \"Waitlist\" WHERE \"event\" = event_id AND \"member\" = member_id;
+                        RETURN -1;
+                    END IF;
+
+                    IF NOT EXISTS (SELECT 1 FROM \"EventSeatShard\" WHERE \"event\" = event_id) THEN
+                        SELECT promoted INTO waiter FROM promote_waitlist(event_id) promoted LIMIT 1;
+                        RETURN COALESCE(waiter, 0);
+                    END IF;
+
+                    SELECT \"ID\", \"member\" INTO waiter_id, waiter
+                    FROM \"Waitlist\" WHERE \"event\" = event_id
+                    ORDER BY \"ID\"
+                    LIMIT 1
+                    FOR UPDATE SKIP LOCKED;
+                    IF NOT FOUND THEN
+                        RETURN 0;
+                    END IF;
+
+                    IF register_for_event(event_id, waiter) IN ('REGISTERED', 'ALREADY_REGISTERED') THEN
+                        DELETE FROM \"Waitlist\" WHERE \"ID\" = waiter_id;
+                        RETURN waiter;
+                    END IF;
+                    RETURN 0;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        // Включение flash sale: оставшиеся места делятся на shard_count шардов.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION enable_flash_sale(event_id INT, shard_count INT)
+                RETURNS TEXT AS $$
+                DECLARE
+                    max_participants INT;
+                    remaining INT;
+                BEGIN
+                    SELECT \"maxParticipants\" INTO max_participants
+                    FROM \"Event\" WHERE \"ID\" = event_id
+                    FOR UPDATE;
+                    IF NOT FOUND THEN
+                        RETURN 'EVENT_NOT_FOUND';
+                    END IF;
+                    IF COALESCE(max_participants, 0) <= 0 THEN
+                        RETURN 'NO_SEAT_LIMIT';
+                    END IF;
+
+                    DELETE FROM \"EventSeatShard\" WHERE \"event\" = event_id;
+                    remaining := GREATEST(max_participants
+                        - (SELECT COUNT(*) FROM \"Registration\" WHERE \"event\" = event_id), 0);
+                    INSERT INTO \"EventSeatShard\" (\"event\", \"shard\", \"capacity\", \"claimed\")
+                    SELECT event_id, g, remaining / shard_count + CASE WHEN g < remaining % shard_count THEN 1 ELSE 0 END, 0
+                    FROM generate_series(0, shard_count - 1) g;
+                    RETURN 'ENABLED';
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        // Сводит счётчики \"Event\" и \"OrganizerStats\" с фактическими регистрациями;
+        // event_id = NULL — для всех событий в режиме flash sale.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION reconcile_flash_sales(event_id INT)
+                RETURNS INT AS $$
+                DECLARE
+                    updated INT;
+                BEGIN
+                    WITH counts AS (
+                        SELECT s.\"event\", (SELECT COUNT(*) FROM \"Registration\" r WHERE r.\"event\" = s.\"event\")::INT AS total
+                        FROM (SELECT DISTINCT \"event\" FROM \"EventSeatShard\"
+                              WHERE event_id IS NULL OR \"event\" = event_id) s
+                    ), stats AS (
+                        INSERT INTO \"OrganizerStats\" (\"event\", \"quantity_of_participants\", \"medium_rating\")
+                        SELECT \"event\", total, 0 FROM counts
+                        ON CONFLICT (\"event\") DO UPDATE
+                        SET \"quantity_of_participants\" = EXCLUDED.\"quantity_of_participants\"
+                        WHERE \"OrganizerStats\".\"quantity_of_participants\" IS DISTINCT FROM EXCLUDED.\"quantity_of_participants\"
+                    )
+                    UPDATE \"Event\" e
+                    SET \"registeredParticipants\" = counts.total
+                    FROM counts
+                    WHERE e.\"ID\" = counts.\"event\"
+                    AND e.\"registeredParticipants\" IS DISTINCT FROM counts.total;
+                    GET DIAGNOSTICS updated = ROW_COUNT;
+                    RETURN updated;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        // Выключение: шарды удаляются под блокировкой события (DELETE ждёт
+        // регистрации, держащие шард), затем счётчики сводятся окончательно.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION disable_flash_sale(event_id INT)
+                RETURNS TEXT AS $$
+                BEGIN
+                    PERFORM 1 FROM \"Event\" WHERE \"ID\" = event_id FOR UPDATE;
+                    IF NOT FOUND THEN
+                        RETURN 'EVENT_NOT_FOUND';
+                    END IF;
+                    PERFORM reconcile_flash_sales(event_id);
+                    DELETE FROM \"EventSeatShard\" WHERE \"event\" = event_id;
+                    UPDATE \"Event\"
+                    SET \"registeredParticipants\" = (SELECT COUNT(*) FROM \"Registration\" WHERE \"event\" = event_id)
+                    WHERE \"ID\" = event_id;
+                    UPDATE \"OrganizerStats\"
+                    SET \"quantity_of_participants\" = (SELECT COUNT(*) FROM \"Registration\" WHERE \"event\" = event_id)
+                    WHERE \"event\" = event_id;
+                    PERFORM reconcile_organizer_dashboard((SELECT \"organizerId\" FROM \"Event\" WHERE \"ID\" = event_id));
+                    RETURN 'DISABLED';
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        // Счётчики после массового импорта регистраций (триггеры increment_participants
+        // и organizer_dashboard_registration пропускают строки при
+        // event.bulk_registration = on): один UPDATE события и статистики и
+        // пакетный upsert участников организатора вместо построчных дельт.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION apply_bulk_registrations(event_id INT, members INT[])
+                RETURNS VOID AS $$
+                DECLARE
+                    added INT := COALESCE(array_length(members, 1), 0);
+                    organizer_id INT;
+                    new_members INT;
+                BEGIN
+                    IF added = 0 THEN
+                        RETURN;
+                    END IF;
+
+                    UPDATE \"Event\"
+                    SET \"registeredParticipants\" = COALESCE(\"registeredParticipants\", 0) + added
+                    WHERE \"ID\" = event_id
+                    RETURNING \"organizerId\" INTO organizer_id;
+
+                    INSERT INTO \"OrganizerStats\" (\"event\", \"quantity_of_participants\", \"medium_rating\")
+                    VALUES (event_id, added, 0)
+                    ON CONFLICT (\"event\") DO UPDATE
+                    SET \"quantity_of_participants\" = \"OrganizerStats\".\"quantity_of_participants\" + added;
+
+                    IF organizer_id IS NULL THEN
+                        RETURN;
+                    END IF;
+                    PERFORM pg_advisory_xact_lock(hashtext('OrganizerDashboard'), organizer_id);
+                    WITH upserted AS (
+                        INSERT INTO \"OrganizerMember\" (\"organizer\", \"member\", \"registrations\")
+                        SELECT organizer_id, m, 1 FROM unnest(members) m
+                        ON CONFLICT (\"organizer\", \"member\") DO UPDATE
+                        SET \"registrations\" = \"OrganizerMember\".\"registrations\" + 1
+                        RETURNING \"registrations\"
+                    )
+                    SELECT COUNT(*) FILTER (WHERE \"registrations\" = 1) INTO new_members FROM upserted;
+                    IF new_members > 0 THEN
+                        INSERT INTO \"OrganizerDashboard\" (\"organizer\", \"participants\")
+                        VALUES (organizer_id, new_members)
+                        ON CONFLICT (\"organizer\") DO UPDATE
+                        SET \"participants\" = \"OrganizerDashboard\".\"participants\" + new_members;
+                    END IF;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
+        // Пересчёт сводки одного организатора с нуля; под той же advisory-блокировкой,
+        // что и триггеры, поэтому параллельные дельты не теряются.
+        jdbcTemplate.execute("""
+                CREATE OR REPLACE FUNCTION reconcile_organizer_dashboard(organizer_id INT)
+                RETURNS INT AS $$
+                DECLARE
+                    total INT;
+                BEGIN
+                    PERFORM pg_advisory_xact_lock(hashtext('OrganizerDashboard'), organizer_id);
+
+                    IF NOT EXISTS (SELECT 1 FROM \"Event\" WHERE \"organizerId\" = organizer_id) THEN
+                        DELETE FROM \"OrganizerMember\" WHERE \"organizer\" = organizer_id;
+                        DELETE FROM \"OrganizerDashboard\" WHERE \"organizer\" = organizer_id;
+                        RETURN 0;
+                    END IF;
+
+                    DELETE FROM \"OrganizerMember\" m
+                    WHERE m.\"organizer\" = organizer_id
+                    AND NOT EXISTS (
+                        SELECT 1 FROM \"Registration\" r
+                        JOIN \"Event\" e ON e.\"ID\" = r.\"event\"
+                        WHERE e.\"organizerId\" = organizer_id AND r.\"member\" = m.\"member\"
+                    );
+                    INSERT INTO \"OrganizerMember\" (\"organizer\", \"member\", \"registrations\")
+                    SELECT organizer_id, r.\"member\", COUNT(*)::INT
+                    FROM \"Registration\" r
+                    JOIN \"Event\" e ON e.\"ID\" = r.\"event\"
+                    WHERE e.\"organizerId\" = organizer_id
+                    GROUP BY r.\"member\"
+                    ON CONFLICT (\"organizer\", \"member\") DO UPDATE
+                    SET \"registrations\" = EXCLUDED.\"registrations\"
+                    WHERE \"OrganizerMember\".\"registrations\" IS DISTINCT FROM EXCLUDED.\"registrations\";
+
+                    SELECT COUNT(*)::INT INTO total FROM \"OrganizerMember\" WHERE \"organizer\" = organizer_id;
+                    INSERT INTO \"OrganizerDashboard\" (\"organizer\", \"participants\", \"ratingSum\", \"ratingCount\", \"reconciledAt\")
+                    SELECT organizer_id, total, COALESCE(SUM(f.\"rating\"), 0), COUNT(f.\"rating\")::INT, CURRENT_TIMESTAMP
+                    FROM \"Feedback\" f
+                    JOIN \"Event\" e ON e.\"ID\" = f.\"event\"
+                    WHERE e.\"organizerId\" = organizer_id
+                    ON CONFLICT (\"organizer\") DO UPDATE
+                    SET \"participants\" = EXCLUDED.\"participants\",
+                    \"ratingSum\" = EXCLUDED.\"ratingSum\",
+                    \"ratingCount\" = EXCLUDED.\"ratingCount\",
+                    \"reconciledAt\" = EXCLUDED.\"reconciledAt\";
+                    RETURN total;
+                END;
+                $$ LANGUAGE plpgsql;
+                """);
+
         jdbcTemplate.execute("""
                 CREATE OR REPLACE FUNCTION save_quiz_result(user_id INT, quiz_id INT, result_value FLOAT)
                 RETURNS TEXT AS $$
@@ -0,0 +1,40 @@
+package back.user.config;
+
+import back.user.util.InternalPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Принимает {@link InternalPrincipal#HEADER} от gateway: при верной подписи
+ * и неистёкшем сроке принципал кладётся в атрибуты запроса
+ * ({@link InternalPrincipal#current()}). Без секрета заголовок игнорируется.
+ */
+@Component
+public class InternalPrincipalFilter extends OncePerRequestFilter {
+    private final byte[] secret;
+
+    public InternalPrincipalFilter(@Value("${internal.principal.secret:}") String secret) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(InternalPrincipal.HEADER);
+        if (header != null && secret.length > 0) {
+            InternalPrincipal principal = InternalPrincipal.decode(header, secret,
+                    System.currentTimeMillis() / 1000);
+            if (principal != null) {
+                request.setAttribute(InternalPrincipal.ATTRIBUTE, principal);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -2,7 +2,9 @@ package back.user.service;
 
 import back.user.model.User;
 import back.user.model.enums.UserRole;
+import back.user.util.InternalPrincipal;
 import back.user.util.JwtTokenUtil;
+import back.user.util.TokenClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -126,6 +128,9 @@ public class UserService {
     }
 
     public boolean checkValidToken(String token) {
+        if (InternalPrincipal.current() != null) {
+            return true;
+        }
         try {
             boolean validToken = jwtTokenUtil.validateJwtToken(token);
             System.out.println(">> Токен " + (validToken ? "валиден" : "не валиден") + ": "
@@ -139,23 +144,29 @@ public class UserService {
     }
 
     public String extractEmail(String token) {
-        if (!jwtTokenUtil.validateJwtToken(token)) {
-            System.out.println(">> Токен не валиден при извлечении email");
-            return null;
+        // Запрос прошёл через gateway: токен там уже проверен.
+        InternalPrincipal principal = InternalPrincipal.current();
+        if (principal != null) {
+            return principal.getEmail();
         }
 
-        try {
-            String email = jwtTokenUtil.getEmailFromJwtToken(token);
-            System.out.println(">> Извлечен email: " + email);
-            return email;
-        } catch (Exception e) {
-            logger.error("Failed to extract email from token: {}", e.getMessage());
-            System.out.println(">> Ошибка извлечения email из токена: " + e.getMessage());
+        TokenClaims claims = jwtTokenUtil.verify(token);
+        if (claims == null) {
+            System.out.println(">> Токен не валиден при извлечении email");
             return null;
         }
+
+        String email = claims.getSubject();
+        System.out.println(">> Извлечен email: " + email);
+        return email;
     }
 
     public String getUserRole(String token) {
+        InternalPrincipal principal = InternalPrincipal.current();
+        if (principal != null) {
+            return principal.getRole();
+        }
+
         String email = extractEmail(token);
         if (email == null) {
             return null;
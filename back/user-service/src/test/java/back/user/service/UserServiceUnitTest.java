@@ -1,6 +1,7 @@
 package back.user.service;
 
 import back.user.util.JwtTokenUtil;
+import back.user.util.TokenClaims;
 import org.junit.jupiter.api.Test;
 import org.springframework.jdbc.core.JdbcTemplate;
 
@@ -16,8 +17,7 @@ class UserServiceUnitTest {
 
     @Test
     void extractEmailShouldReturnEmailForValidToken() {
-        when(jwtTokenUtil.validateJwtToken("valid-token")).thenReturn(true);
-        when(jwtTokenUtil.getEmailFromJwtToken("valid-token")).thenReturn("user@example.com");
+        when(jwtTokenUtil.verify("valid-token")).thenReturn(new TokenClaims("user@example.com", null, null));
 
         String email = userService.extractEmail("valid-token");
 
@@ -26,7 +26,7 @@ class UserServiceUnitTest {
 
     @Test
     void extractEmailShouldReturnNullForInvalidToken() {
-        when(jwtTokenUtil.validateJwtToken("invalid-token")).thenReturn(false);
+        when(jwtTokenUtil.verify("invalid-token")).thenReturn(null);
 
         String email = userService.extractEmail("invalid-token");
 
@@ -34,6 +34,8 @@ export class EventDetailComponent implements OnInit {
     hoverRating: number = 0;
     isSubmittingFeedback: boolean = false;
     hasSubmittedFeedback: boolean = false;
+    feedbacksCursor: string | null = null;
+    isLoadingMoreFeedbacks: boolean = false;
 
     // Quizzes
     quizzes: Quiz[] = [];
@@ -168,25 +170,42 @@ export class EventDetailComponent implements OnInit {
     }
 
     loadFeedbacks(eventId: number): void {
-        console.log('Loading feedbacks for event ID:', eventId);
-
         this.feedbackService.getEventFeedbacks(eventId).subscribe({
-            next: (feedbacks) => {
-                console.log('Successfully loaded feedbacks:', feedbacks);
-                this.feedbacks = feedbacks;
-
-                // Check if current user has already submitted feedback
-                if (this.authService.isAuthenticated()) {
-                    const userId = this.authService.getCurrentUser()?.id;
-                    this.hasSubmittedFeedback = feedbacks.some(f => f.userId === userId);
-                    console.log('User has submitted feedback:', this.hasSubmittedFeedback);
-                }
+            next: (page) => {
+                this.feedbacks = page.feedbacks;
+                this.feedbacksCursor = page.nextCursor;
             },
             error: (err) => {
                 console.error('Error loading feedbacks:', err);
                 this.notificationService.errorFromHttp(err, 'Не удалось загрузить отзывы');
             }
         });
+
+        // Check if current user has already submitted feedback
+        if (this.authService.isAuthenticated()) {
+            this.feedbackService.getMyFeedback(eventId).subscribe({
+                next: () => this.hasSubmittedFeedback = true,
+                error: () => this.hasSubmittedFeedback = false
+            });
+        }
+    }
+
+    loadMoreFeedbacks(): void {
+        if (!this.event || !this.feedbacksCursor || this.isLoadingMoreFeedbacks) {
+            return;
+        }
+        this.isLoadingMoreFeedbacks = true;
+        this.feedbackService.getEventFeedbacks(this.event.id, this.feedbacksCursor).subscribe({
+            next: (page) => {
+                this.feedbacks = [...this.feedbacks, ...page.feedbacks];
+                this.feedbacksCursor = page.nextCursor;
+                this.isLoadingMoreFeedbacks = false;
+            },
+            error: (err) => {
+                this.isLoadingMoreFeedbacks = false;
+                this.notificationService.errorFromHttp(err, 'Не удалось загрузить отзывы');
+            }
+        });
     }
 
     // loadEventQuizzes(eventId: number): void {
@@ -214,7 +233,13 @@ export class EventDetailComponent implements OnInit {
         console.log(`Attempting to register for event ${this.event.id}`);
 
         this.eventService.registerForEvent(this.event.id).subscribe({
-            next: () => {
+            next: (response) => {
+                if (response?.position) {
+                    // Мест нет: сервер поставил пользователя в очередь ожидания
+                    this.notificationService.success(`Мест нет — вы в очереди ожидания, позиция ${response.position}`);
+                    this.isRegistering = false;
+                    return;
+                }
                 console.log(`Successfully registered for event ${this.event?.id}`);
                 this.notificationService.success('Вы успешно зарегистрировались на событие');
                 this.isRegistered = true;
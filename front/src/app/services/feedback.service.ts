@@ -12,7 +12,12 @@ export interface Feedback {
     userName: string;
     rating: number;
     comment: string;
-    createdAt: Date;
+    createdAt: string;
+}
+
+export interface FeedbackPage {
+    feedbacks: Feedback[];
+    nextCursor: string | null;
 }
 
 @Injectable({
@@ -31,47 +36,27 @@ export class FeedbackService {
             );
     }
 
-    getEventFeedbacks(eventId: number): Observable<Feedback[]> {
-        return this.http.get<string[]>(`${this.eventUrl}/${eventId}/feedback`)
+    /**
+     * Страница отзывов от новых к старым. nextCursor приходит в заголовке
+     * X-Next-Cursor и равен null на последней странице.
+     */
+    getEventFeedbacks(eventId: number, cursor?: string | null, rating?: number, limit?: number): Observable<FeedbackPage> {
+        let params = new HttpParams();
+        if (cursor) {
+            params = params.set('cursor', cursor);
+        }
+        if (rating) {
+            params = params.set('rating', rating);
+        }
+        if (limit) {
+            params = params.set('limit', limit);
+        }
+        return this.http.get<Feedback[]>(`${this.eventUrl}/${eventId}/feedback`, { params, observe: 'response' })
             .pipe(
-                map(feedbacks => {
-                    console.log('Raw feedbacks data:', feedbacks);
-
-                    if (!feedbacks || feedbacks.length === 0) {
-                        return [];
-                    }
-
-                    return feedbacks.map((feedbackStr, index) => {
-                        try {
-                            // Ожидаем формат "userId:userName:rating:comment"
-                            const parts = feedbackStr.split(':');
-
-                            if (parts.length >= 4) {
-                                const userId = parseInt(parts[0], 10);
-                                const userName = parts[1];
-                                const rating = parseInt(parts[2], 10);
-                                // Объединяем оставшиеся части обратно, на случай если в комментарии есть двоеточия
-                                const comment = parts.slice(3).join(':');
-
-                                return {
-                                    id: index + 1,
-                                    eventId: eventId,
-                                    userId: userId,
-                                    userName: userName,
-                                    rating: rating,
-                                    comment: comment,
-                                    createdAt: new Date()
-                                };
-                            } else {
-                                console.error('Invalid feedback format:', feedbackStr);
-                                return null;
-                            }
-                        } catch (e) {
-                            console.error('Error parsing feedback:', e, feedbackStr);
-                            return null;
-                        }
-                    }).filter(feedback => feedback !== null) as Feedback[];
-                }),
+                map(response => ({
+                    feedbacks: response.body ?? [],
+                    nextCursor: response.headers.get('X-Next-Cursor')
+                })),
                 catchError(error => {
                     console.error('Error getting feedbacks:', error);
                     return throwError(() => error);
@@ -79,6 +64,16 @@ export class FeedbackService {
             );
     }
 
+    /**
+     * Отзыв текущего пользователя о событии; 404, если отзыва нет.
+     */
+    getMyFeedback(eventId: number): Observable<Feedback> {
+        return this.http.get<Feedback>(`${this.eventUrl}/${eventId}/feedback/me`)
+            .pipe(
+                catchError(error => throwError(() => error))
+            );
+    }
+
     getUserFeedbacks(userId: number): Observable<Feedback[]> {
         return throwError(() => new Error('getUserFeedbacks endpoint is not available in event-service API'));
     }